@@ -0,0 +1,56 @@
+package com.Community.demo.cache;
+
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-day aggregate cache for AnalyticsServiceImpl. Only closed days (before today) are stored;
+ * a stored day stays until a write to a row on that day evicts it (see AnalyticsCacheListener).
+ */
+@Component
+public class AnalyticsCache {
+
+    public enum Series {
+        APPOINTMENTS_BY_STATUS,
+        CONSULTATIONS_BY_MODE,
+        SCREENINGS
+    }
+
+    private final Map<Series, Map<LocalDate, Map<String, Long>>> days = new EnumMap<>(Series.class);
+    private final Map<Series, AtomicLong> evictions = new EnumMap<>(Series.class);
+
+    public AnalyticsCache() {
+        for (Series s : Series.values()) {
+            days.put(s, new ConcurrentHashMap<>());
+            evictions.put(s, new AtomicLong());
+        }
+    }
+
+    /** Bumped on every eviction; read before querying and pass it to {@link #put}. */
+    public long epoch(Series series) {
+        return evictions.get(series).get();
+    }
+
+    public Map<String, Long> get(Series series, LocalDate day) {
+        return days.get(series).get(day);
+    }
+
+    /**
+     * Stores a closed day unless an eviction for the series happened since {@code epochSeen},
+     * i.e. a write committed while the aggregate query was running and the counts may be stale.
+     */
+    public void put(Series series, LocalDate day, Map<String, Long> counts, long epochSeen) {
+        if (epoch(series) != epochSeen) return;
+        days.get(series).put(day, Map.copyOf(counts));
+    }
+
+    public void evict(Series series, LocalDate day) {
+        evictions.get(series).incrementAndGet();
+        days.get(series).remove(day);
+    }
+}
@@ -0,0 +1,69 @@
+package com.Community.demo.cache;
+
+import com.Community.demo.cache.AnalyticsCache.Series;
+import com.Community.demo.model.Appointment;
+import com.Community.demo.model.ConsultationSession;
+import com.Community.demo.model.Screening;
+import com.Community.demo.util.AfterCommit;
+import jakarta.persistence.PostLoad;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Evicts the cached analytics day a written row falls on, so back-dated bookings or a status
+ * change on an old appointment are reflected. A loaded row remembers its day (a transient
+ * analyticsDay field), so moving it to another day evicts the day it left as well. Eviction
+ * runs after commit so a concurrent reader can't re-cache the pre-commit numbers.
+ */
+public class AnalyticsCacheListener {
+
+    private final AnalyticsCache cache;
+
+    public AnalyticsCacheListener(AnalyticsCache cache) {
+        this.cache = cache;
+    }
+
+    @PostLoad
+    public void onLoad(Object entity) {
+        if (entity instanceof Appointment a) {
+            a.setAnalyticsDay(day(a.getScheduledAt()));
+        } else if (entity instanceof ConsultationSession s) {
+            s.setAnalyticsDay(day(s.getSessionStart()));
+        } else if (entity instanceof Screening s) {
+            s.setAnalyticsDay(day(s.getTakenAt()));
+        }
+    }
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void onWrite(Object entity) {
+        if (entity instanceof Appointment a) {
+            evict(Series.APPOINTMENTS_BY_STATUS, a.getAnalyticsDay(), day(a.getScheduledAt()));
+            a.setAnalyticsDay(day(a.getScheduledAt()));
+        } else if (entity instanceof ConsultationSession s) {
+            evict(Series.CONSULTATIONS_BY_MODE, s.getAnalyticsDay(), day(s.getSessionStart()));
+            s.setAnalyticsDay(day(s.getSessionStart()));
+        } else if (entity instanceof Screening s) {
+            evict(Series.SCREENINGS, s.getAnalyticsDay(), day(s.getTakenAt()));
+            s.setAnalyticsDay(day(s.getTakenAt()));
+        }
+    }
+
+    private void evict(Series series, LocalDate previous, LocalDate current) {
+        if (previous != null && !previous.equals(current)) {
+            AfterCommit.run(() -> cache.evict(series, previous));
+        }
+        if (current != null) {
+            AfterCommit.run(() -> cache.evict(series, current));
+        }
+    }
+
+    private static LocalDate day(LocalDateTime at) {
+        return at == null ? null : at.toLocalDate();
+    }
+}
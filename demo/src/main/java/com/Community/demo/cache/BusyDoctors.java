@@ -0,0 +1,128 @@
+package com.Community.demo.cache;
+
+import com.Community.demo.events.DoctorAvailabilityChanged;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Which doctors currently have an open consultation session (sessionEnd IS NULL).
+ *
+ * Writers (BusyDoctorsListener, ListenerEffects, BusyDoctorsReconciler) serialize on this
+ * object and keep a session -> doctor map plus a per-doctor open-session count; readers only
+ * touch the concurrent count map, so {@link #isBusy} is a lock-free hash lookup.
+ * Until the first reconcile has run {@link #isReady} is false and callers use the database.
+ * {@link #availabilityVersion} moves only when a doctor turns busy or free, not on every write;
+ * each flip is also published as a DoctorAvailabilityChanged event. Events are published under
+ * the lock so a doctor's busy/free sequence is never reordered; listeners must not block.
+ */
+@Component
+public class BusyDoctors {
+
+    private static final Logger log = LoggerFactory.getLogger(BusyDoctors.class);
+
+    private final Map<Long, Integer> openByDoctor = new ConcurrentHashMap<>();
+    // guarded by this
+    private final Map<Long, Long> doctorBySession = new HashMap<>();
+    private long generation;
+    private volatile long availabilityVersion;
+    private volatile boolean ready;
+
+    private final ApplicationEventPublisher events;
+
+    public BusyDoctors(ApplicationEventPublisher events) {
+        this.events = events;
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public boolean isBusy(Long doctorId) {
+        return doctorId != null && openByDoctor.containsKey(doctorId);
+    }
+
+    /** Bumped whenever the set of busy doctors changes. */
+    public long availabilityVersion() {
+        return availabilityVersion;
+    }
+
+    /** Live read-only view of the busy doctor ids. */
+    public Set<Long> busyDoctorIds() {
+        return Collections.unmodifiableSet(openByDoctor.keySet());
+    }
+
+    /** Read before querying the database and pass to {@link #reconcile}. */
+    public synchronized long generation() {
+        return generation;
+    }
+
+    /** Records a committed session write; {@code open} is sessionEnd == null. */
+    public void sessionChanged(Long sessionId, Long doctorId, boolean open) {
+        if (sessionId == null) return;
+        List<DoctorAvailabilityChanged> flips = new ArrayList<>(2);
+        synchronized (this) {
+            generation++;
+            Long newDoctor = open ? doctorId : null;
+            Long previous = newDoctor == null ? doctorBySession.remove(sessionId) : doctorBySession.put(sessionId, newDoctor);
+            if (Objects.equals(previous, newDoctor)) return;
+            if (previous != null && decrement(previous)) {
+                flips.add(new DoctorAvailabilityChanged(previous, true));
+            }
+            if (newDoctor != null && openByDoctor.merge(newDoctor, 1, Integer::sum) == 1) {
+                flips.add(new DoctorAvailabilityChanged(newDoctor, false));
+            }
+            if (!flips.isEmpty()) availabilityVersion++;
+            flips.forEach(events::publishEvent);
+        }
+    }
+
+    public void sessionRemoved(Long sessionId) {
+        sessionChanged(sessionId, null, false);
+    }
+
+    /**
+     * Replaces the state with the database's open sessions (session id -> doctor id), unless a
+     * write was applied since {@code genSeen}; the next run picks that up instead.
+     */
+    public boolean reconcile(Map<Long, Long> open, long genSeen) {
+        List<DoctorAvailabilityChanged> flips = new ArrayList<>();
+        synchronized (this) {
+            if (genSeen != generation) return false;
+            if (ready && !open.equals(doctorBySession)) {
+                log.warn("Busy doctor set drifted from the database; resetting ({} open sessions)", open.size());
+            }
+            doctorBySession.clear();
+            doctorBySession.putAll(open);
+            Map<Long, Integer> counts = new HashMap<>();
+            open.values().forEach(d -> counts.merge(d, 1, Integer::sum));
+            for (Long d : openByDoctor.keySet()) {
+                if (!counts.containsKey(d)) flips.add(new DoctorAvailabilityChanged(d, true));
+            }
+            for (Long d : counts.keySet()) {
+                if (!openByDoctor.containsKey(d)) flips.add(new DoctorAvailabilityChanged(d, false));
+            }
+            if (!flips.isEmpty()) availabilityVersion++;
+            openByDoctor.keySet().retainAll(counts.keySet());
+            openByDoctor.putAll(counts);
+            ready = true;
+            flips.forEach(events::publishEvent);
+        }
+        return true;
+    }
+
+    // true if the doctor has no open session left
+    private boolean decrement(Long doctorId) {
+        return openByDoctor.computeIfPresent(doctorId, (d, n) -> n > 1 ? n - 1 : null) == null;
+    }
+}
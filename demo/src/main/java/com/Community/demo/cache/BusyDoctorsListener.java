@@ -0,0 +1,32 @@
+package com.Community.demo.cache;
+
+import com.Community.demo.model.ConsultationSession;
+import com.Community.demo.util.AfterCommit;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+
+/** Mirrors committed session writes into BusyDoctors. */
+public class BusyDoctorsListener {
+
+    private final BusyDoctors busyDoctors;
+
+    public BusyDoctorsListener(BusyDoctors busyDoctors) {
+        this.busyDoctors = busyDoctors;
+    }
+
+    @PostPersist
+    @PostUpdate
+    public void onSave(ConsultationSession s) {
+        Long id = s.getId();
+        Long doctorId = s.getDoctor() == null ? null : s.getDoctor().getId();
+        boolean open = s.getSessionEnd() == null;
+        AfterCommit.run(() -> busyDoctors.sessionChanged(id, doctorId, open));
+    }
+
+    @PostRemove
+    public void onRemove(ConsultationSession s) {
+        Long id = s.getId();
+        AfterCommit.run(() -> busyDoctors.sessionRemoved(id));
+    }
+}
@@ -0,0 +1,44 @@
+package com.Community.demo.cache;
+
+import com.Community.demo.repository.ConsultationRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Seeds BusyDoctors at startup and re-syncs it with the open sessions in the database every
+ * doctors.busy.reconcile-interval-ms (default 1 minute), covering writes made by other nodes.
+ */
+@Component
+public class BusyDoctorsReconciler {
+
+    private static final Logger log = LoggerFactory.getLogger(BusyDoctorsReconciler.class);
+
+    private final BusyDoctors busyDoctors;
+    private final ConsultationRepository consultationRepository;
+
+    public BusyDoctorsReconciler(BusyDoctors busyDoctors, ConsultationRepository consultationRepository) {
+        this.busyDoctors = busyDoctors;
+        this.consultationRepository = consultationRepository;
+    }
+
+    @Scheduled(fixedDelayString = "${doctors.busy.reconcile-interval-ms:60000}")
+    public void reconcile() {
+        try {
+            long generation = busyDoctors.generation();
+            Map<Long, Long> open = new HashMap<>();
+            for (Object[] row : consultationRepository.findOpenSessionDoctors()) {
+                open.put((Long) row[0], (Long) row[1]);
+            }
+            if (!busyDoctors.reconcile(open, generation)) {
+                log.debug("Busy doctor reconcile skipped: a session write raced the query");
+            }
+        } catch (Exception ex) {
+            log.warn("Busy doctor reconciliation failed: {}", ex.getMessage());
+        }
+    }
+}
@@ -0,0 +1,224 @@
+package com.Community.demo.cache;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Per-doctor, per-day busy bitmaps of 15-minute slots (96 bits, two longs per day).
+ *
+ * Each cached day keeps a booking count per slot so overlapping bookings can be added and
+ * removed independently; readers only see the derived bitmap, which is republished after every
+ * change and needs no lock. Days are filled by DoctorCalendarServiceImpl from the appointment
+ * and consultation tables and then patched by DoctorCalendarListener (and ListenerEffects for
+ * the write paths that skip entity listeners).
+ *
+ * A booking is remembered by key ("A" + appointment id, "S" + session id) with the interval it
+ * covers, so a moved or cancelled booking is subtracted from exactly the slots it was added to.
+ * Loads that raced a write for the same doctor are served but not cached (see {@link #generation}).
+ */
+@Component
+public class DoctorCalendar {
+
+    public static final int SLOT_MINUTES = 15;
+    public static final int SLOTS_PER_DAY = 24 * 60 / SLOT_MINUTES;
+
+    /** Busy interval [start, end) of one booking. */
+    public record Booking(Long doctorId, LocalDateTime start, LocalDateTime end) {}
+
+    private record DayKey(Long doctorId, LocalDate day) {}
+
+    private static final class Day {
+        final short[] counts = new short[SLOTS_PER_DAY];
+        volatile long[] bits = new long[2];
+
+        void add(LocalDateTime start, LocalDateTime end, LocalDate day, int delta) {
+            int from = slotOf(start, day, false);
+            int to = slotOf(end, day, true);
+            for (int i = from; i < to; i++) counts[i] += delta;
+            long[] next = new long[2];
+            for (int i = 0; i < SLOTS_PER_DAY; i++) {
+                if (counts[i] > 0) next[i >> 6] |= 1L << (i & 63);
+            }
+            bits = next;
+        }
+    }
+
+    private final Map<DayKey, Day> days = new ConcurrentHashMap<>();
+    // guarded by this
+    private final Map<String, Booking> bookings = new HashMap<>();
+    private final Map<Long, Long> generations = new HashMap<>();
+
+    private final Duration appointmentLength;
+
+    @Value("${calendar.max-cached-days:50000}")
+    private int maxCachedDays;
+
+    @Value("${calendar.retain-past-days:7}")
+    private int retainPastDays;
+
+    public DoctorCalendar(@Value("${appointments.slot-minutes:30}") int appointmentMinutes) {
+        this.appointmentLength = Duration.ofMinutes(Math.max(1, appointmentMinutes));
+    }
+
+    public static String appointmentKey(Long id) {
+        return "A" + id;
+    }
+
+    public static String sessionKey(Long id) {
+        return "S" + id;
+    }
+
+    /** The interval an appointment keeps its doctor busy, or null if it does not. */
+    public Booking appointment(Long doctorId, LocalDateTime at, String status) {
+        if (doctorId == null || at == null) return null;
+        if (status != null && status.toUpperCase().startsWith("CANCEL")) return null;
+        return new Booking(doctorId, at, at.plus(appointmentLength));
+    }
+
+    /** The interval a session keeps its doctor busy; an open-ended session counts one appointment length. */
+    public Booking session(Long doctorId, LocalDateTime start, LocalDateTime end) {
+        if (doctorId == null || start == null) return null;
+        return new Booking(doctorId, start, end != null && end.isAfter(start) ? end : start.plus(appointmentLength));
+    }
+
+    /** The cached bitmap for one day, or null if that day is not cached. */
+    public long[] get(Long doctorId, LocalDate day) {
+        Day d = days.get(new DayKey(doctorId, day));
+        return d == null ? null : d.bits;
+    }
+
+    /** Read before loading from the database and pass to {@link #install}. */
+    public synchronized long generation(Long doctorId) {
+        return generations.getOrDefault(doctorId, 0L);
+    }
+
+    /**
+     * Builds bitmaps for [from, to) from the loaded bookings (keyed as above) and caches the days
+     * that are not cached yet, unless a write for this doctor committed since {@code genSeen}.
+     * Returns the built bitmaps either way.
+     */
+    public synchronized Map<LocalDate, long[]> install(Long doctorId, LocalDate from, LocalDate to,
+                                                       Map<String, Booking> loaded, long genSeen) {
+        Map<LocalDate, Day> built = new HashMap<>();
+        for (LocalDate day = from; day.isBefore(to); day = day.plusDays(1)) {
+            built.put(day, new Day());
+        }
+        for (Booking b : loaded.values()) {
+            forEachDay(b, from, to, day -> built.get(day).add(b.start(), b.end(), day, 1));
+        }
+
+        Map<LocalDate, long[]> result = new HashMap<>();
+        built.forEach((day, d) -> result.put(day, d.bits));
+        if (genSeen != generation(doctorId) || days.size() + built.size() > maxCachedDays) {
+            return result;
+        }
+        // disagreement with what we know means the load saw a write whose after-commit hasn't run yet
+        for (Map.Entry<String, Booking> e : loaded.entrySet()) {
+            Booking known = bookings.get(e.getKey());
+            if (known == null ? touchesCached(e.getValue()) : !known.equals(e.getValue())) return result;
+        }
+        for (Map.Entry<String, Booking> e : bookings.entrySet()) {
+            Booking b = e.getValue();
+            if (doctorId.equals(b.doctorId()) && !loaded.containsKey(e.getKey())
+                    && b.start().toLocalDate().isBefore(to) && !lastDay(b).isBefore(from)) {
+                return result;
+            }
+        }
+        built.forEach((day, d) -> days.putIfAbsent(new DayKey(doctorId, day), d));
+        loaded.forEach((key, b) -> {
+            if (b.start().toLocalDate().isBefore(to) && !lastDay(b).isBefore(from)) bookings.put(key, b);
+        });
+        return result;
+    }
+
+    /** Records a committed write; {@code booking} null means the key no longer makes anyone busy. */
+    public synchronized void changed(String key, Booking booking) {
+        Booking previous = booking == null ? bookings.remove(key) : bookings.put(key, booking);
+        if (Objects.equals(previous, booking)) return;
+        if (previous != null) {
+            subtract(previous);
+            bump(previous.doctorId());
+        }
+        if (booking != null) {
+            // only bookings that touch a cached day need remembering
+            if (!add(booking)) bookings.remove(key);
+            bump(booking.doctorId());
+        }
+    }
+
+    /** Drops days older than the retention window and the bookings that no longer touch a cached day. */
+    @Scheduled(fixedDelayString = "${calendar.prune-interval-ms:3600000}")
+    public synchronized void prune() {
+        LocalDate cutoff = LocalDate.now().minusDays(Math.max(0, retainPastDays));
+        days.keySet().removeIf(k -> k.day().isBefore(cutoff));
+        Iterator<Booking> it = bookings.values().iterator();
+        while (it.hasNext()) {
+            if (!touchesCached(it.next())) it.remove();
+        }
+    }
+
+    private void subtract(Booking b) {
+        for (LocalDate day = b.start().toLocalDate(); !day.isAfter(lastDay(b)); day = day.plusDays(1)) {
+            Day d = days.get(new DayKey(b.doctorId(), day));
+            if (d != null) d.add(b.start(), b.end(), day, -1);
+        }
+    }
+
+    private boolean add(Booking b) {
+        boolean touched = false;
+        for (LocalDate day = b.start().toLocalDate(); !day.isAfter(lastDay(b)); day = day.plusDays(1)) {
+            Day d = days.get(new DayKey(b.doctorId(), day));
+            if (d != null) {
+                d.add(b.start(), b.end(), day, 1);
+                touched = true;
+            }
+        }
+        return touched;
+    }
+
+    private boolean touchesCached(Booking b) {
+        for (LocalDate day = b.start().toLocalDate(); !day.isAfter(lastDay(b)); day = day.plusDays(1)) {
+            if (days.containsKey(new DayKey(b.doctorId(), day))) return true;
+        }
+        return false;
+    }
+
+    private void bump(Long doctorId) {
+        generations.merge(doctorId, 1L, Long::sum);
+    }
+
+    private static void forEachDay(Booking b, LocalDate from, LocalDate to, Consumer<LocalDate> action) {
+        LocalDate first = b.start().toLocalDate().isBefore(from) ? from : b.start().toLocalDate();
+        for (LocalDate day = first; day.isBefore(to) && !day.isAfter(lastDay(b)); day = day.plusDays(1)) {
+            action.accept(day);
+        }
+    }
+
+    // an interval ending exactly at midnight does not touch the next day
+    private static LocalDate lastDay(Booking b) {
+        LocalDate last = b.end().toLocalDate();
+        return b.end().toLocalTime().equals(LocalTime.MIDNIGHT) ? last.minusDays(1) : last;
+    }
+
+    // slot index of t within day, clamped to [0, SLOTS_PER_DAY]; ceil rounds a partial slot up
+    private static int slotOf(LocalDateTime t, LocalDate day, boolean ceil) {
+        if (t.toLocalDate().isBefore(day)) return 0;
+        if (t.toLocalDate().isAfter(day)) return SLOTS_PER_DAY;
+        int minutes = t.getHour() * 60 + t.getMinute();
+        boolean partial = t.getSecond() > 0 || t.getNano() > 0 || minutes % SLOT_MINUTES != 0;
+        int slot = minutes / SLOT_MINUTES;
+        return ceil && partial ? slot + 1 : slot;
+    }
+}
@@ -0,0 +1,45 @@
+package com.Community.demo.cache;
+
+import com.Community.demo.model.Appointment;
+import com.Community.demo.model.ConsultationSession;
+import com.Community.demo.util.AfterCommit;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+
+/** Patches DoctorCalendar's cached days with committed appointment and session writes. */
+public class DoctorCalendarListener {
+
+    private final DoctorCalendar calendar;
+
+    public DoctorCalendarListener(DoctorCalendar calendar) {
+        this.calendar = calendar;
+    }
+
+    @PostPersist
+    @PostUpdate
+    public void onSave(Object entity) {
+        if (entity instanceof Appointment a) {
+            String key = DoctorCalendar.appointmentKey(a.getId());
+            DoctorCalendar.Booking booking = calendar.appointment(
+                    a.getDoctor() == null ? null : a.getDoctor().getId(), a.getScheduledAt(), a.getStatus());
+            AfterCommit.run(() -> calendar.changed(key, booking));
+        } else if (entity instanceof ConsultationSession s) {
+            String key = DoctorCalendar.sessionKey(s.getId());
+            DoctorCalendar.Booking booking = calendar.session(
+                    s.getDoctor() == null ? null : s.getDoctor().getId(), s.getSessionStart(), s.getSessionEnd());
+            AfterCommit.run(() -> calendar.changed(key, booking));
+        }
+    }
+
+    @PostRemove
+    public void onRemove(Object entity) {
+        if (entity instanceof Appointment a) {
+            String key = DoctorCalendar.appointmentKey(a.getId());
+            AfterCommit.run(() -> calendar.changed(key, null));
+        } else if (entity instanceof ConsultationSession s) {
+            String key = DoctorCalendar.sessionKey(s.getId());
+            AfterCommit.run(() -> calendar.changed(key, null));
+        }
+    }
+}
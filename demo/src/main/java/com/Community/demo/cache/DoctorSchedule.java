@@ -0,0 +1,117 @@
+package com.Community.demo.cache;
+
+import com.Community.demo.exception.ConflictException;
+import com.Community.demo.payload.UpcomingAppointment;
+import com.Community.demo.util.AfterCommit;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Per-doctor index of booked appointment start times used to reject double bookings.
+ *
+ * Each doctor's bookings sit in a TreeMap (start -> appointment id) guarded by that doctor's own
+ * monitor, so "is [at, at + slot) free" is an O(log n) range probe and the check-and-reserve is
+ * atomic without locking the appointments table. A doctor is loaded lazily from the database on
+ * first booking and then kept current by DoctorScheduleListener.
+ *
+ * A reservation is held as {@link #PENDING} until the booking commits (the listener then writes
+ * the real id) and is released if the transaction rolls back. The guard is per JVM; with several
+ * instances the database remains the arbiter.
+ */
+@Component
+public class DoctorSchedule {
+
+    private static final long PENDING = -1L;
+
+    private static final class Slots {
+        final TreeMap<LocalDateTime, Long> byStart = new TreeMap<>();
+        final Map<Long, LocalDateTime> startById = new HashMap<>();
+        boolean loaded;
+    }
+
+    private final Map<Long, Slots> doctors = new ConcurrentHashMap<>();
+    private final Duration slot;
+
+    public DoctorSchedule(@Value("${appointments.slot-minutes:30}") int slotMinutes) {
+        this.slot = Duration.ofMinutes(Math.max(1, slotMinutes));
+    }
+
+    /**
+     * Reserves [at, at + slot) for the doctor or throws ConflictException. Must run inside the
+     * booking transaction. {@code appointmentId} is the appointment being moved (null for a new one)
+     * and never conflicts with itself; {@code loader} returns the doctor's future bookings.
+     */
+    public void reserve(Long doctorId, LocalDateTime at, Long appointmentId,
+                        Supplier<List<UpcomingAppointment>> loader) {
+        Slots slots = doctors.computeIfAbsent(doctorId, id -> new Slots());
+        synchronized (slots) {
+            if (!slots.loaded) {
+                for (UpcomingAppointment a : loader.get()) {
+                    if (occupies(a.status())) put(slots, a.id(), a.scheduledAt());
+                }
+                slots.loaded = true;
+            }
+            LocalDateTime horizon = LocalDateTime.now().minus(slot);
+            slots.byStart.headMap(horizon).values().forEach(slots.startById::remove);
+            slots.byStart.headMap(horizon).clear();
+
+            for (Long holder : slots.byStart.subMap(at.minus(slot), false, at.plus(slot), false).values()) {
+                if (!Objects.equals(holder, appointmentId)) {
+                    throw new ConflictException("Doctor is already booked within " + slot.toMinutes()
+                            + " minutes of " + at);
+                }
+            }
+            slots.byStart.put(at, PENDING);
+        }
+        AfterCommit.onRollback(() -> release(doctorId, at));
+    }
+
+    /** Records a committed booking; a no-op for doctors that were never loaded. */
+    public void booked(Long doctorId, Long appointmentId, LocalDateTime at, String status) {
+        removed(appointmentId);
+        if (doctorId == null || at == null || !occupies(status)) return;
+        Slots slots = doctors.get(doctorId);
+        if (slots == null) return;
+        synchronized (slots) {
+            if (slots.loaded) put(slots, appointmentId, at);
+        }
+    }
+
+    /** Forgets an appointment wherever it was booked. */
+    public void removed(Long appointmentId) {
+        if (appointmentId == null) return;
+        for (Slots slots : doctors.values()) {
+            synchronized (slots) {
+                LocalDateTime start = slots.startById.remove(appointmentId);
+                if (start != null) slots.byStart.remove(start, appointmentId);
+            }
+        }
+    }
+
+    private void release(Long doctorId, LocalDateTime at) {
+        Slots slots = doctors.get(doctorId);
+        if (slots == null) return;
+        synchronized (slots) {
+            slots.byStart.remove(at, PENDING);
+        }
+    }
+
+    private static void put(Slots slots, Long appointmentId, LocalDateTime at) {
+        slots.byStart.put(at, appointmentId);
+        slots.startById.put(appointmentId, at);
+    }
+
+    private static boolean occupies(String status) {
+        return status == null || !status.toUpperCase().startsWith("CANCEL");
+    }
+}
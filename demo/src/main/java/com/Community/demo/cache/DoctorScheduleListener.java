@@ -0,0 +1,35 @@
+package com.Community.demo.cache;
+
+import com.Community.demo.model.Appointment;
+import com.Community.demo.util.AfterCommit;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+
+import java.time.LocalDateTime;
+
+/** Mirrors committed appointment writes into DoctorSchedule. */
+public class DoctorScheduleListener {
+
+    private final DoctorSchedule schedule;
+
+    public DoctorScheduleListener(DoctorSchedule schedule) {
+        this.schedule = schedule;
+    }
+
+    @PostPersist
+    @PostUpdate
+    public void onSave(Appointment a) {
+        Long doctorId = a.getDoctor() == null ? null : a.getDoctor().getId();
+        Long id = a.getId();
+        LocalDateTime at = a.getScheduledAt();
+        String status = a.getStatus();
+        AfterCommit.run(() -> schedule.booked(doctorId, id, at, status));
+    }
+
+    @PostRemove
+    public void onRemove(Appointment a) {
+        Long id = a.getId();
+        AfterCommit.run(() -> schedule.removed(id));
+    }
+}
@@ -0,0 +1,45 @@
+package com.Community.demo.cache;
+
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-memory role -> user-id index, filled lazily from UserRepository.findIdsByRole and dropped
+ * whenever a user is registered, changed or removed (see RoleDirectoryListener). Roles change
+ * rarely, so a full invalidation is simpler than tracking which role sets moved.
+ *
+ * The directory never queries itself: on a miss the caller loads the ids and hands them to
+ * {@link #put} together with the generation it read first, so a load that raced a write is
+ * not cached.
+ */
+@Component
+public class RoleDirectory {
+
+    private final Map<String, List<Long>> idsByRole = new ConcurrentHashMap<>();
+    private final AtomicLong generation = new AtomicLong();
+
+    /** Read before loading from the DB and pass it to {@link #put}. */
+    public long generation() {
+        return generation.get();
+    }
+
+    /** Cached ids for the role (ascending), or null if it has to be loaded. */
+    public List<Long> get(String role) {
+        return idsByRole.get(role);
+    }
+
+    /** Stores the ids unless the directory was invalidated while they were being loaded. */
+    public void put(String role, List<Long> ids, long generationSeen) {
+        if (generation.get() != generationSeen) return;
+        idsByRole.put(role, List.copyOf(ids));
+    }
+
+    public void invalidate() {
+        generation.incrementAndGet();
+        idsByRole.clear();
+    }
+}
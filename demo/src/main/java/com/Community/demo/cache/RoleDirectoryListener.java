@@ -0,0 +1,23 @@
+package com.Community.demo.cache;
+
+import com.Community.demo.util.AfterCommit;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+
+/** Drops the role directory after a user is registered, updated or deleted has committed. */
+public class RoleDirectoryListener {
+
+    private final RoleDirectory directory;
+
+    public RoleDirectoryListener(RoleDirectory directory) {
+        this.directory = directory;
+    }
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void onWrite(Object user) {
+        AfterCommit.run(directory::invalidate);
+    }
+}
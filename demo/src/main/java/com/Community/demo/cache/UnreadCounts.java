@@ -0,0 +1,164 @@
+package com.Community.demo.cache;
+
+import com.Community.demo.model.Notification;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.SoftReference;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.LongSupplier;
+
+/**
+ * Per-user unread notification counts, loaded on first use and then kept current from the
+ * notification writes, so a badge refresh is a map lookup.
+ *
+ * Counts are held through soft references: the collector may drop any of them under memory
+ * pressure, and the next read loads that user again. notifications.unread.max-users caps the
+ * number of cached users; past it, reads go to the database without caching.
+ *
+ * Writers call {@link #track} inside their transaction, after the write and before commit.
+ * That marks the user's stripe as having a write in flight and bumps its epoch; the delta is
+ * applied after commit. A load only caches its count if its stripe had no write in flight when
+ * it started and the epoch is unchanged once the count is installed, so a count read from the
+ * database can never miss or double-count a concurrent write; otherwise the loaded value is
+ * returned uncached.
+ *
+ * Only this node's writes reach {@link #track}, so a cached count is trusted for
+ * notifications.unread.ttl-ms after its load and then loaded again on the next read; that
+ * bounds how long writes made by other nodes (or straight to the database) can leave it wrong.
+ * Expired entries nobody reads again are swept on the same interval.
+ */
+@Component
+public class UnreadCounts {
+
+    private static final int STRIPES = 1024;
+
+    private static final class Ref extends SoftReference<AtomicLong> {
+        final Long userId;
+        final long loadedNanos = System.nanoTime();
+
+        Ref(Long userId, AtomicLong count, ReferenceQueue<AtomicLong> queue) {
+            super(count, queue);
+            this.userId = userId;
+        }
+    }
+
+    private final Map<Long, Ref> counts = new ConcurrentHashMap<>();
+    private final ReferenceQueue<AtomicLong> cleared = new ReferenceQueue<>();
+    private final AtomicLongArray inFlight = new AtomicLongArray(STRIPES);
+    private final AtomicLongArray epochs = new AtomicLongArray(STRIPES);
+
+    @Value("${notifications.unread.max-users:200000}")
+    private int maxUsers;
+
+    @Value("${notifications.unread.ttl-ms:60000}")
+    private long ttlMs;
+
+    /** The user's unread count, from the cache or else from {@code load} (a database count). */
+    public long get(Long userId, LongSupplier load) {
+        expunge();
+        Ref ref = counts.get(userId);
+        AtomicLong cached = ref == null ? null : ref.get();
+        if (cached != null) {
+            if (!expired(ref, System.nanoTime())) return cached.get();
+            counts.remove(userId, ref);
+        }
+
+        int stripe = stripe(userId);
+        boolean quiet = inFlight.get(stripe) == 0;
+        long epoch = epochs.get(stripe);
+        long loaded = load.getAsLong();
+        if (!quiet || counts.size() >= maxUsers) return loaded;
+
+        Ref fresh = new Ref(userId, new AtomicLong(loaded), cleared);
+        Ref current = counts.compute(userId, (id, existing) ->
+                existing != null && existing.get() != null && !expired(existing, System.nanoTime()) ? existing : fresh);
+        if (current != fresh) {
+            AtomicLong other = current.get();
+            return other != null ? other.get() : loaded;
+        }
+        if (epochs.get(stripe) != epoch) {
+            // a write started while counting; its delta may or may not be in the count
+            counts.remove(userId, fresh);
+        }
+        return loaded;
+    }
+
+    /**
+     * Records unread deltas per user for the current transaction (applied if it commits), or
+     * applies them now when there is no transaction.
+     */
+    public void track(Map<Long, Long> deltas) {
+        if (deltas.isEmpty()) return;
+        Map<Long, Long> copy = Map.copyOf(deltas);
+        for (Long userId : copy.keySet()) {
+            int stripe = stripe(userId);
+            inFlight.incrementAndGet(stripe);
+            epochs.incrementAndGet(stripe);
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            finish(copy, true);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                finish(copy, status == STATUS_COMMITTED);
+            }
+        });
+    }
+
+    /** {@link #track} for freshly inserted notifications: +1 per unread one for its user. */
+    public void trackCreated(Collection<Notification> notifications) {
+        Map<Long, Long> deltas = new HashMap<>();
+        for (Notification n : notifications) {
+            if (!n.isRead()) deltas.merge(n.getUserId(), 1L, Long::sum);
+        }
+        track(deltas);
+    }
+
+    private void finish(Map<Long, Long> deltas, boolean committed) {
+        deltas.forEach((userId, delta) -> {
+            if (committed) {
+                Ref ref = counts.get(userId);
+                AtomicLong count = ref == null ? null : ref.get();
+                if (count != null) count.accumulateAndGet(delta, (a, b) -> Math.max(0, a + b));
+            }
+            inFlight.decrementAndGet(stripe(userId));
+        });
+    }
+
+    @Scheduled(fixedDelayString = "${notifications.unread.ttl-ms:60000}")
+    public void sweep() {
+        expunge();
+        long now = System.nanoTime();
+        counts.values().removeIf(ref -> expired(ref, now));
+    }
+
+    private boolean expired(Ref ref, long now) {
+        return now - ref.loadedNanos >= TimeUnit.MILLISECONDS.toNanos(ttlMs);
+    }
+
+    private void expunge() {
+        Object ref;
+        while ((ref = cleared.poll()) != null) {
+            Ref r = (Ref) ref;
+            counts.remove(r.userId, r);
+        }
+    }
+
+    private static int stripe(Long userId) {
+        int h = userId.hashCode();
+        return (h ^ (h >>> 16)) & (STRIPES - 1);
+    }
+}
@@ -0,0 +1,117 @@
+package com.Community.demo.cache;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Function;
+
+/**
+ * Time-ordered index of future rows, keyed by (time, id) so equal start times don't collide.
+ * A second map from id to key lets updates and deletes find the old position.
+ *
+ * Writes that arrive while {@link #load} runs win over the loaded snapshot: their ids are
+ * remembered and the loader skips them.
+ */
+public class UpcomingIndex<T> {
+
+    private record Key(LocalDateTime at, long id) implements Comparable<Key> {
+        @Override
+        public int compareTo(Key o) {
+            int c = at.compareTo(o.at);
+            return c != 0 ? c : Long.compare(id, o.id);
+        }
+    }
+
+    private final ConcurrentSkipListMap<Key, T> byTime = new ConcurrentSkipListMap<>();
+    private final Map<Long, Key> keyById = new ConcurrentHashMap<>();
+    private final Set<Long> writtenBeforeReady = ConcurrentHashMap.newKeySet();
+    private final Function<T, Long> idOf;
+    private final Function<T, LocalDateTime> timeOf;
+    private final Function<T, Long> doctorOf;
+    private final Function<T, Long> patientOf;
+    private volatile boolean ready;
+
+    public UpcomingIndex(Function<T, Long> idOf, Function<T, LocalDateTime> timeOf,
+                         Function<T, Long> doctorOf, Function<T, Long> patientOf) {
+        this.idOf = idOf;
+        this.timeOf = timeOf;
+        this.doctorOf = doctorOf;
+        this.patientOf = patientOf;
+    }
+
+    /** True once the initial load finished; until then lookups must go to the database. */
+    public boolean isReady() {
+        return ready;
+    }
+
+    public void upsert(T item) {
+        Long id = idOf.apply(item);
+        if (id == null) return;
+        if (!ready) writtenBeforeReady.add(id);
+        put(id, item);
+    }
+
+    public void remove(Long id) {
+        if (id == null) return;
+        if (!ready) writtenBeforeReady.add(id);
+        keyById.computeIfPresent(id, (k, old) -> {
+            byTime.remove(old);
+            return null;
+        });
+    }
+
+    /** Seeds the index from the database; rows written meanwhile keep their newer state. */
+    public void load(List<T> snapshot) {
+        for (T item : snapshot) {
+            Long id = idOf.apply(item);
+            if (id != null && !writtenBeforeReady.contains(id)) {
+                put(id, item);
+            }
+        }
+        ready = true;
+        writtenBeforeReady.clear();
+    }
+
+    /** Rows with from < time <= until in time order, optionally for one doctor and/or patient. */
+    public List<T> range(LocalDateTime from, LocalDateTime until, Long doctorId, Long patientId, int limit) {
+        List<T> out = new ArrayList<>(Math.min(limit, 64));
+        for (T item : byTime.subMap(new Key(from, Long.MAX_VALUE), false,
+                new Key(until, Long.MAX_VALUE), true).values()) {
+            if (doctorId != null && !doctorId.equals(doctorOf.apply(item))) continue;
+            if (patientId != null && !patientId.equals(patientOf.apply(item))) continue;
+            out.add(item);
+            if (out.size() >= limit) break;
+        }
+        return out;
+    }
+
+    /** Drops everything at or before {@code now}; returns how many entries were removed. */
+    public int prune(LocalDateTime now) {
+        int removed = 0;
+        for (Map.Entry<Key, T> e : byTime.headMap(new Key(now, Long.MAX_VALUE), true).entrySet()) {
+            Key key = e.getKey();
+            if (keyById.remove(key.id(), key)) removed++;
+            byTime.remove(key, e.getValue());
+        }
+        return removed;
+    }
+
+    public int size() {
+        return keyById.size();
+    }
+
+    private void put(Long id, T item) {
+        LocalDateTime at = timeOf.apply(item);
+        keyById.compute(id, (k, old) -> {
+            if (old != null) byTime.remove(old);
+            if (at == null || !at.isAfter(LocalDateTime.now())) return null;
+            Key key = new Key(at, id);
+            byTime.put(key, item);
+            return key;
+        });
+    }
+}
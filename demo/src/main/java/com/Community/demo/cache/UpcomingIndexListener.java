@@ -0,0 +1,51 @@
+package com.Community.demo.cache;
+
+import com.Community.demo.model.Appointment;
+import com.Community.demo.model.ConsultationSession;
+import com.Community.demo.model.User;
+import com.Community.demo.payload.UpcomingAppointment;
+import com.Community.demo.payload.UpcomingSession;
+import com.Community.demo.util.AfterCommit;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+
+/** Keeps the upcoming indexes in step with committed appointment and session writes. */
+public class UpcomingIndexListener {
+
+    private final UpcomingIndexes indexes;
+
+    public UpcomingIndexListener(UpcomingIndexes indexes) {
+        this.indexes = indexes;
+    }
+
+    @PostPersist
+    @PostUpdate
+    public void onSave(Object entity) {
+        if (!indexes.isEnabled()) return;
+        if (entity instanceof Appointment a) {
+            UpcomingAppointment row = new UpcomingAppointment(a.getId(), a.getTitle(), a.getScheduledAt(),
+                    a.getStatus(), idOf(a.getPatient()), idOf(a.getDoctor()));
+            AfterCommit.run(() -> indexes.appointments().upsert(row));
+        } else if (entity instanceof ConsultationSession s) {
+            UpcomingSession row = new UpcomingSession(s.getId(), s.getTopic(), s.getSessionStart(),
+                    s.getMode(), idOf(s.getPatient()), idOf(s.getDoctor()));
+            AfterCommit.run(() -> indexes.sessions().upsert(row));
+        }
+    }
+
+    @PostRemove
+    public void onRemove(Object entity) {
+        if (!indexes.isEnabled()) return;
+        if (entity instanceof Appointment a) {
+            AfterCommit.run(() -> indexes.appointments().remove(a.getId()));
+        } else if (entity instanceof ConsultationSession s) {
+            AfterCommit.run(() -> indexes.sessions().remove(s.getId()));
+        }
+    }
+
+    // getId() on a lazy proxy does not initialize it
+    private static Long idOf(User user) {
+        return user == null ? null : user.getId();
+    }
+}
@@ -0,0 +1,57 @@
+package com.Community.demo.cache;
+
+import com.Community.demo.repository.AppointmentRepository;
+import com.Community.demo.repository.ConsultationRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+
+/** Seeds the upcoming indexes once the app is up and drops entries as their time passes. */
+@Component
+public class UpcomingIndexLoader {
+
+    private static final Logger log = LoggerFactory.getLogger(UpcomingIndexLoader.class);
+
+    private final UpcomingIndexes indexes;
+    private final AppointmentRepository appointmentRepository;
+    private final ConsultationRepository consultationRepository;
+
+    public UpcomingIndexLoader(UpcomingIndexes indexes,
+                               AppointmentRepository appointmentRepository,
+                               ConsultationRepository consultationRepository) {
+        this.indexes = indexes;
+        this.appointmentRepository = appointmentRepository;
+        this.consultationRepository = consultationRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        if (!indexes.isEnabled()) return;
+        LocalDateTime now = LocalDateTime.now();
+        try {
+            indexes.appointments().load(
+                    appointmentRepository.findUpcoming(now, null, null, null, Limit.unlimited()));
+            indexes.sessions().load(
+                    consultationRepository.findUpcoming(now, null, null, null, Limit.unlimited()));
+            log.info("Upcoming indexes loaded: appointments={} sessions={}",
+                    indexes.appointments().size(), indexes.sessions().size());
+        } catch (Exception ex) {
+            // lookups keep using the database until a restart loads the index
+            log.warn("Upcoming index load failed: {}", ex.getMessage());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${upcoming.index.prune-interval-ms:60000}")
+    public void prune() {
+        if (!indexes.isEnabled()) return;
+        LocalDateTime now = LocalDateTime.now();
+        int removed = indexes.appointments().prune(now) + indexes.sessions().prune(now);
+        log.debug("Upcoming indexes pruned {} past entries", removed);
+    }
+}
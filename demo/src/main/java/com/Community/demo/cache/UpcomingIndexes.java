@@ -0,0 +1,41 @@
+package com.Community.demo.cache;
+
+import com.Community.demo.payload.UpcomingAppointment;
+import com.Community.demo.payload.UpcomingSession;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * In-memory upcoming indexes for appointments and consultation sessions, switched on with
+ * upcoming.index.enabled=true. When off (the default) upcoming lookups always use the
+ * scheduled_at / session_start indexes in the database.
+ *
+ * Holds the indexes only; UpcomingIndexLoader seeds them from the database and
+ * UpcomingIndexListener keeps them current.
+ */
+@Component
+public class UpcomingIndexes {
+
+    @Value("${upcoming.index.enabled:false}")
+    private boolean enabled;
+
+    private final UpcomingIndex<UpcomingAppointment> appointments = new UpcomingIndex<>(
+            UpcomingAppointment::id, UpcomingAppointment::scheduledAt,
+            UpcomingAppointment::doctorId, UpcomingAppointment::patientId);
+
+    private final UpcomingIndex<UpcomingSession> sessions = new UpcomingIndex<>(
+            UpcomingSession::id, UpcomingSession::sessionStart,
+            UpcomingSession::doctorId, UpcomingSession::patientId);
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public UpcomingIndex<UpcomingAppointment> appointments() {
+        return appointments;
+    }
+
+    public UpcomingIndex<UpcomingSession> sessions() {
+        return sessions;
+    }
+}
@@ -0,0 +1,25 @@
+package com.Community.demo.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+/**
+ * The single thread that writes NotificationBuffer's write-behind queue. Flushes are requested
+ * by a scheduled tick or a full batch, at most one queued at a time; on shutdown a running
+ * flush is allowed to finish.
+ */
+@Configuration
+public class NotificationConfig {
+
+    @Bean(name = "notificationFlushExecutor")
+    public ThreadPoolTaskExecutor notificationFlushExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(1);
+        executor.setMaxPoolSize(1);
+        executor.setThreadNamePrefix("notification-flush-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(10);
+        return executor;
+    }
+}
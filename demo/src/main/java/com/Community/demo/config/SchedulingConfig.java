@@ -0,0 +1,25 @@
+package com.Community.demo.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+
+/**
+ * Runs the @Scheduled jobs. Boot's default scheduler has a single thread, and several jobs
+ * (counter reconcile, outbox drain, stale-session sweep, reminder tick) hold theirs for a
+ * database round trip or a whole backlog; with one thread, the short-interval jobs such as SSE
+ * heartbeats and the notification flush tick would wait behind them.
+ */
+@Configuration
+public class SchedulingConfig {
+
+    @Bean(name = "taskScheduler")
+    public ThreadPoolTaskScheduler taskScheduler(@Value("${scheduling.pool-size:8}") int threads) {
+        ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+        scheduler.setPoolSize(threads);
+        scheduler.setThreadNamePrefix("scheduling-");
+        scheduler.setWaitForTasksToCompleteOnShutdown(false);
+        return scheduler;
+    }
+}
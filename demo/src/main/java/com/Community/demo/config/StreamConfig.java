@@ -0,0 +1,29 @@
+package com.Community.demo.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+/**
+ * Small fixed pool that writes queued server-sent events to subscribers. Idle SSE connections
+ * are parked servlet async requests and hold no thread; a pool thread is only busy while a
+ * subscriber has events to flush, and at most one task per subscriber is queued at a time.
+ *
+ * The pool runs doctors.stream.send-threads threads; StreamSendWatchdog adds threads (up to
+ * doctors.stream.max-send-threads) while sends are stuck on stalled sockets.
+ */
+@Configuration
+public class StreamConfig {
+
+    @Bean(name = "streamExecutor")
+    public ThreadPoolTaskExecutor streamExecutor(@Value("${doctors.stream.send-threads:4}") int threads,
+                                                 @Value("${doctors.stream.max-send-threads:32}") int maxThreads) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(Math.max(threads, maxThreads));
+        executor.setThreadNamePrefix("sse-");
+        executor.setWaitForTasksToCompleteOnShutdown(false);
+        return executor;
+    }
+}
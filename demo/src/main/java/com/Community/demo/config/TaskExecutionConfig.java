@@ -0,0 +1,23 @@
+package com.Community.demo.config;
+
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.task.ThreadPoolTaskExecutorBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+/**
+ * Boot's general-purpose executor, declared here because Boot only creates it when no other
+ * Executor bean exists, and the export, stream, match and notification-flush pools are
+ * Executors. Spring MVC's async request handling looks it up by this name; without it, async
+ * requests would fall back to an unpooled SimpleAsyncTaskExecutor. It is built from Boot's
+ * builder, so the spring.task.execution.* properties still apply.
+ */
+@Configuration
+public class TaskExecutionConfig {
+
+    @Bean(name = {TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME, "taskExecutor"})
+    public ThreadPoolTaskExecutor applicationTaskExecutor(ThreadPoolTaskExecutorBuilder builder) {
+        return builder.build();
+    }
+}
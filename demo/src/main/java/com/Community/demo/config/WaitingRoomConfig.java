@@ -0,0 +1,25 @@
+package com.Community.demo.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+/**
+ * Runs waiting room matches triggered by a doctor becoming free. That signal arrives inside the
+ * BusyDoctors lock on a committing thread, so the session for the match is created here instead.
+ * At most one task per specialty is queued at a time.
+ */
+@Configuration
+public class WaitingRoomConfig {
+
+    @Bean(name = "matchExecutor")
+    public ThreadPoolTaskExecutor matchExecutor(@Value("${waiting-room.match-threads:2}") int threads) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setThreadNamePrefix("match-");
+        executor.setWaitForTasksToCompleteOnShutdown(false);
+        return executor;
+    }
+}
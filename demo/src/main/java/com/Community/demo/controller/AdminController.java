@@ -1,37 +1,85 @@
 // src/main/java/com/Community/demo/controller/AdminController.java
 package com.Community.demo.controller;
 
-import com.Community.demo.model.Appointment;
-import com.Community.demo.model.User;
 import com.Community.demo.payload.AdminStats;
+import com.Community.demo.payload.AnalyticsResponse;
+import com.Community.demo.payload.AppointmentSummary;
+import com.Community.demo.payload.KeysetPage;
+import com.Community.demo.payload.LatencySummary;
+import com.Community.demo.payload.UserSummary;
 import com.Community.demo.services.AdminService;
+import com.Community.demo.services.AnalyticsService;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import jakarta.servlet.http.HttpServletResponse;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 
 @RestController
 @RequestMapping("/api/admin")
 public class AdminController {
     private final AdminService adminService;
+    private final AnalyticsService analyticsService;
 
-    public AdminController(AdminService adminService) { this.adminService = adminService; }
+    public AdminController(AdminService adminService, AnalyticsService analyticsService) {
+        this.adminService = adminService;
+        this.analyticsService = analyticsService;
+    }
 
+    /** Id-ordered pages; pass the returned nextAfter as ?after= for the next page. */
     @GetMapping("/users")
-    public ResponseEntity<List<User>> users() { return ResponseEntity.ok(adminService.listUsers()); }
+    public ResponseEntity<KeysetPage<UserSummary>> users(
+            @RequestParam(value = "after", required = false) Long after,
+            @RequestParam(value = "limit", required = false) Integer limit,
+            @RequestParam(value = "role", required = false) String role) {
+        return ResponseEntity.ok(adminService.listUsers(after, limit, role));
+    }
 
+    /** Id-ordered pages filtered by status and/or scheduledAt in [from, to). */
     @GetMapping("/appointments")
-    public ResponseEntity<List<Appointment>> appointments() {
-        return ResponseEntity.ok(adminService.listAppointments());
+    public ResponseEntity<KeysetPage<AppointmentSummary>> appointments(
+            @RequestParam(value = "after", required = false) Long after,
+            @RequestParam(value = "limit", required = false) Integer limit,
+            @RequestParam(value = "status", required = false) String status,
+            @RequestParam(value = "from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(value = "to", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        return ResponseEntity.ok(adminService.listAppointments(after, limit, status, from, to));
     }
 
     @GetMapping("/stats")
     public ResponseEntity<AdminStats> stats() { return ResponseEntity.ok(adminService.getStats()); }
 
+    /** Consultation duration, start delay and start/end latency percentiles over the rolling window. */
+    @GetMapping("/metrics/consultations")
+    public ResponseEntity<List<LatencySummary>> consultationMetrics(
+            @RequestParam(value = "doctorId", required = false) Long doctorId,
+            @RequestParam(value = "mode", required = false) String mode,
+            @RequestParam(value = "perDoctor", defaultValue = "false") boolean perDoctor) {
+        return ResponseEntity.ok(adminService.getConsultationMetrics(doctorId, mode, perDoctor));
+    }
+
+    /** Histograms per day or week; from/to are inclusive ISO dates, default the last 30 days. */
+    @GetMapping("/analytics")
+    public ResponseEntity<AnalyticsResponse> analytics(
+            @RequestParam(value = "from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(value = "to", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(value = "granularity", defaultValue = "day") String granularity) {
+        return ResponseEntity.ok(analyticsService.getAnalytics(from, to, granularity));
+    }
+
     @GetMapping("/export/appointments.csv")
     public void exportAppointments(HttpServletResponse resp) { adminService.exportAppointmentsCsv(resp); }
 
     @GetMapping("/export/screenings.csv")
     public void exportScreenings(HttpServletResponse resp) { adminService.exportScreeningsCsv(resp); }
+
+    /** All exportable tables as one ZIP; optional deflate level 0-9 (-1 = default). */
+    @GetMapping("/export/bundle.zip")
+    public void exportBundle(@RequestParam(value = "level", required = false) Integer level,
+                             HttpServletResponse resp) {
+        adminService.exportBundleZip(resp, level);
+    }
 }
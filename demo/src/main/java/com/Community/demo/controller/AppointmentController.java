@@ -3,11 +3,14 @@ package com.Community.demo.controller;
 import com.Community.demo.model.Appointment;
 import com.Community.demo.model.User;
 import com.Community.demo.payload.AppointmentRequest;
+import com.Community.demo.payload.BulkBookingResponse;
 import com.Community.demo.payload.JoinInfoResponse;
+import com.Community.demo.payload.UpcomingAppointment;
 import com.Community.demo.repository.AppointmentRepository;
 import com.Community.demo.repository.UserRepository;
 import com.Community.demo.services.AppointmentService;
 import com.Community.demo.services.VideoLinkService;
+import com.Community.demo.util.DateTimes;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.http.HttpStatus;
@@ -15,10 +18,7 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.server.ResponseStatusException;
 
-import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
-import java.time.format.DateTimeParseException;
 import java.util.List;
 import java.util.Optional;
 
@@ -59,28 +59,8 @@ public class AppointmentController {
             doctor = userRepository.findById(req.getDoctorId()).orElse(null);
         }
 
-        // 2) Parse date/time safely
-        LocalDateTime scheduledAt = null;
-        if (req.getScheduledAt() != null && !req.getScheduledAt().isBlank()) {
-            try {
-                // Try ISO-8601 first: 2025-12-23T10:00:00
-                scheduledAt = LocalDateTime.parse(req.getScheduledAt());
-            } catch (DateTimeParseException ex1) {
-                try {
-                    // Fallback: "23-12-25" (dd-MM-yy) → start of that day
-                    LocalDate d = LocalDate.parse(
-                            req.getScheduledAt(),
-                            DateTimeFormatter.ofPattern("dd-MM-yy")
-                    );
-                    scheduledAt = d.atStartOfDay();
-                } catch (DateTimeParseException ex2) {
-                    throw new ResponseStatusException(
-                            HttpStatus.BAD_REQUEST,
-                            "Invalid scheduledAt format. Use '2025-12-23T10:00:00' or '23-12-25'."
-                    );
-                }
-            }
-        }
+        // 2) Parse date/time: ISO-8601 "2025-12-23T10:00:00" or "23-12-25" (dd-MM-yy)
+        LocalDateTime scheduledAt = DateTimes.parseScheduledAt(req.getScheduledAt());
 
         // 3) Build the Appointment entity
         Appointment a = Appointment.builder()
@@ -99,6 +79,12 @@ public class AppointmentController {
         return ResponseEntity.status(HttpStatus.CREATED).body(saved);
     }
 
+    /** Camp pre-booking: many appointments in one request, with a result per item. */
+    @PostMapping("/bulk")
+    public ResponseEntity<BulkBookingResponse> bookBulk(@RequestBody List<AppointmentRequest> requests) {
+        return ResponseEntity.ok(appointmentService.bookBulk(requests));
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<?> getAppointmentById(@PathVariable("id") String id) {
         try {
@@ -118,6 +104,25 @@ public class AppointmentController {
         return ResponseEntity.ok(appointmentService.getAllAppointments());
     }
 
+    /** Soonest first within ?hours= (default one week); optional doctorId / patientId filters. */
+    @GetMapping("/upcoming")
+    public ResponseEntity<List<UpcomingAppointment>> listUpcomingAppointments(
+            @RequestParam(value = "doctorId", required = false) Long doctorId,
+            @RequestParam(value = "patientId", required = false) Long patientId,
+            @RequestParam(value = "hours", required = false) Integer hours,
+            @RequestParam(value = "limit", required = false) Integer limit) {
+        return ResponseEntity.ok(appointmentService.getUpcomingAppointments(doctorId, patientId, hours, limit));
+    }
+
+    /** Conditional status change, e.g. ?status=IN_PROGRESS; 409 if the current status does not allow it. */
+    @PatchMapping("/{id}/status")
+    public ResponseEntity<?> updateStatus(@PathVariable("id") Long id,
+                                          @RequestParam("status") String status) {
+        return appointmentService.updateStatus(id, status).<ResponseEntity<?>>map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.NOT_FOUND)
+                        .body("Appointment not found with id: " + id));
+    }
+
     @DeleteMapping("/{id}")
     public ResponseEntity<?> deleteAppointment(@PathVariable("id") String id) {
         boolean ok = appointmentService.deleteAppointment(id);
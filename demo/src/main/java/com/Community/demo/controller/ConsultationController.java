@@ -1,17 +1,21 @@
 package com.Community.demo.controller;
 
+import com.Community.demo.exception.BadRequestException;
+import com.Community.demo.exception.ConflictException;
 import com.Community.demo.model.Appointment;
 import com.Community.demo.model.ConsultationSession;
 import com.Community.demo.model.User;
 import com.Community.demo.payload.ConsultationRequest;
 import com.Community.demo.payload.ConsultationResponse;
 import com.Community.demo.payload.JoinInfoResponse;
+import com.Community.demo.payload.UpcomingSession;
 import com.Community.demo.repository.AppointmentRepository;
 import com.Community.demo.repository.UserRepository;
 import com.Community.demo.services.ConsultationService;
 import com.Community.demo.services.VideoLinkService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
@@ -139,10 +143,15 @@ public class ConsultationController {
     }
 
     @GetMapping("/upcoming")
-    public ResponseEntity<?> listUpcomingSessions() {
+    public ResponseEntity<?> listUpcomingSessions(@RequestParam(value = "doctorId", required = false) Long doctorId,
+                                                  @RequestParam(value = "patientId", required = false) Long patientId,
+                                                  @RequestParam(value = "hours", required = false) Integer hours,
+                                                  @RequestParam(value = "limit", required = false) Integer limit) {
         try {
-            List<ConsultationSession> list = consultationService.getUpcomingSessions();
+            List<UpcomingSession> list = consultationService.getUpcomingSessions(doctorId, patientId, hours, limit);
             return ResponseEntity.ok(list);
+        } catch (BadRequestException ex) {
+            throw ex;
         } catch (Exception ex) {
             log.error("Error listing upcoming sessions: {}", ex.getMessage(), ex);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -157,6 +166,8 @@ public class ConsultationController {
             return updated.<ResponseEntity<?>>map(ResponseEntity::ok)
                     .orElseGet(() -> ResponseEntity.status(HttpStatus.NOT_FOUND)
                             .body("Consultation session not found with id: " + id));
+        } catch (ConflictException | OptimisticLockingFailureException ex) {
+            throw ex;
         } catch (Exception ex) {
             log.error("Error starting consultation {}: {}", id, ex.getMessage(), ex);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -171,6 +182,8 @@ public class ConsultationController {
             return updated.<ResponseEntity<?>>map(ResponseEntity::ok)
                     .orElseGet(() -> ResponseEntity.status(HttpStatus.NOT_FOUND)
                             .body("Consultation session not found with id: " + id));
+        } catch (ConflictException | OptimisticLockingFailureException ex) {
+            throw ex;
         } catch (Exception ex) {
             log.error("Error ending consultation {}: {}", id, ex.getMessage(), ex);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -187,6 +200,8 @@ public class ConsultationController {
             return updated.<ResponseEntity<?>>map(ResponseEntity::ok)
                     .orElseGet(() -> ResponseEntity.status(HttpStatus.NOT_FOUND)
                             .body("Consultation session not found with id: " + id));
+        } catch (ConflictException | OptimisticLockingFailureException ex) {
+            throw ex;
         } catch (Exception ex) {
             log.error("Error updating consultation {}: {}", id, ex.getMessage(), ex);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
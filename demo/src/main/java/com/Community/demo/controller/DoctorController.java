@@ -0,0 +1,34 @@
+package com.Community.demo.controller;
+
+import com.Community.demo.services.DoctorCalendarService;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.LocalDate;
+
+@RestController
+@RequestMapping("/api/doctors")
+public class DoctorController {
+
+    private final DoctorCalendarService doctorCalendarService;
+
+    public DoctorController(DoctorCalendarService doctorCalendarService) {
+        this.doctorCalendarService = doctorCalendarService;
+    }
+
+    /** Free/busy 15-minute slots per day for [from, to] (inclusive; default the next seven days). */
+    @GetMapping("/{id}/calendar")
+    public ResponseEntity<?> calendar(
+            @PathVariable("id") Long id,
+            @RequestParam(value = "from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(value = "to", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return doctorCalendarService.getCalendar(id, from, to).<ResponseEntity<?>>map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.NOT_FOUND).body("Doctor not found with id: " + id));
+    }
+}
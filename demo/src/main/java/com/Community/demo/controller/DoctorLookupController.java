@@ -1,73 +1,62 @@
 package com.Community.demo.controller;
 
-import com.Community.demo.model.User;
-import com.Community.demo.repository.ConsultationRepository;
-import com.Community.demo.services.AdminService;
-import com.Community.demo.payload.DoctorDTO;
+import com.Community.demo.events.DoctorAvailabilityStream;
+import com.Community.demo.payload.DoctorDirectory;
+import com.Community.demo.services.DoctorDirectoryService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
-import org.springframework.web.server.ResponseStatusException;
-
-import java.util.Collections;
-import java.util.List;
-import java.util.stream.Collectors;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 @RestController
 @RequestMapping("/api/public")
 public class DoctorLookupController {
 
-    private final AdminService adminService;
-    private final ConsultationRepository consultationRepository;
+    private static final Logger log = LoggerFactory.getLogger(DoctorLookupController.class);
+
+    private final DoctorDirectoryService doctorDirectoryService;
+    private final DoctorAvailabilityStream availabilityStream;
 
-    public DoctorLookupController(AdminService adminService, ConsultationRepository consultationRepository) {
-        this.adminService = adminService;
-        this.consultationRepository = consultationRepository;
+    public DoctorLookupController(DoctorDirectoryService doctorDirectoryService,
+                                  DoctorAvailabilityStream availabilityStream) {
+        this.doctorDirectoryService = doctorDirectoryService;
+        this.availabilityStream = availabilityStream;
     }
 
     /**
-     * Endpoint to get a secure list of currently AVAILABLE doctors.
-     * Filters out doctors who have active consultation sessions.
+     * Endpoint to get a secure list of currently AVAILABLE doctors (a JSON array of DoctorDTO).
+     * The pre-serialized list is served with a strong ETag; a matching If-None-Match gets a 304
+     * (Spring checks it for ResponseEntity bodies that carry an ETag).
      */
     @GetMapping("/doctors")
-    public ResponseEntity<List<DoctorDTO>> getAvailableDoctors() {
-
-        // 1. Get all users designated as doctors (using AdminService)
-        List<User> doctorUsers = adminService.findUsersByRole("ROLE_DOCTOR");
-
-        if (doctorUsers.isEmpty()) {
-            // Return an empty list with a 200 OK status
-            return ResponseEntity.ok(Collections.emptyList());
-        }
-
-        // 2. Find which doctors are currently busy (sessionEnd is NULL)
-        // CRITICAL: busyDoctorIds is now effectively final and correctly initialized.
-        final List<Long> busyDoctorIds;
+    public ResponseEntity<byte[]> getAvailableDoctors() {
+        final DoctorDirectory directory;
         try {
-            busyDoctorIds = consultationRepository.findBusyDoctorIds();
+            directory = doctorDirectoryService.availableDoctors();
         } catch (Exception e) {
             // If the repository fails, assume DB issue and return 500
-            System.err.println("CRITICAL: Consultation check failed. DB or query issue: " + e.getMessage());
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .body(null);
+            log.error("Doctor lookup failed: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(null);
         }
+        return ResponseEntity.ok()
+                .eTag(directory.etag())
+                .cacheControl(CacheControl.noCache())
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(directory.json());
+    }
 
-        // 3. Map User entity to secure DTO, FILTERING by availability
-        List<DoctorDTO> availableDoctors = doctorUsers.stream()
-                .map(user -> {
-                    // Check if the doctor's ID is in the list of busy doctors
-                    boolean isBusy = busyDoctorIds.contains(user.getId());
-
-                    // Use the secure DTO mapping, using the proper user.getName()
-                    return DoctorDTO.fromUser(user, isBusy, "Cardiology");
-                })
-                // FINAL FILTER: Only include doctors whose isAvailable flag is TRUE
-                .filter(DoctorDTO::isAvailable)
-                .collect(Collectors.toList());
-
-        // Return 200 OK with the final, filtered list
-        return ResponseEntity.ok(availableDoctors);
+    /**
+     * Server-sent events carrying availability deltas ({"doctorId":..,"available":..}) as doctors
+     * start and end sessions, so clients can patch the list above instead of polling it.
+     */
+    @GetMapping(path = "/doctors/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamAvailability() {
+        return availabilityStream.subscribe();
     }
-}
\ No newline at end of file
+}
@@ -1,26 +1,45 @@
 package com.Community.demo.controller;
 
+import com.Community.demo.events.NotificationStream;
+import com.Community.demo.exception.BadRequestException;
 import com.Community.demo.model.Notification;
+import com.Community.demo.payload.MarkReadRequest;
+import com.Community.demo.payload.MarkReadResponse;
+import com.Community.demo.payload.NotificationFeedPage;
+import com.Community.demo.payload.UnreadCount;
 import com.Community.demo.services.NotificationService;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.util.List;
 
 /**
  * Simple controller to fetch and mark notifications.
  *
- * GET /api/notifications?userId=123   -> list notifications for a user
- * POST /api/notifications/mark-read  -> mark a notification read
+ * GET /api/notifications?userId=123         -> list notifications for a user
+ * GET /api/notifications/feed?before=..&limit=20&unreadOnly=false -> one page, newest first
+ * GET /api/notifications/stream             -> server-sent events for new notifications
+ * GET /api/notifications/unread-count       -> number of unread notifications
+ * (feed, stream and unread-count need a login and serve the signed-in user only)
+ * POST /api/notifications/mark-read?id=5    -> mark a notification read
+ * POST /api/notifications/mark-read         -> {"ids":[..]} or {"upToId":..} for the signed-in user
  */
 @RestController
 @RequestMapping("/api/notifications")
 public class NotificationController {
 
+    private static final int MAX_MARK_READ_IDS = 1000;
+
     private final NotificationService notificationService;
+    private final NotificationStream notificationStream;
 
-    public NotificationController(NotificationService notificationService) {
+    public NotificationController(NotificationService notificationService, NotificationStream notificationStream) {
         this.notificationService = notificationService;
+        this.notificationStream = notificationStream;
     }
 
     // List notifications for given user id
@@ -30,10 +49,81 @@ public class NotificationController {
         return ResponseEntity.ok(list);
     }
 
+    /** Keyset pages; pass the returned nextBefore as ?before= for older notifications. */
+    @GetMapping("/feed")
+    public ResponseEntity<NotificationFeedPage> feed(
+            Authentication authentication,
+            @RequestParam(value = "userId", required = false) Long userId,
+            @RequestParam(value = "before", required = false) String before,
+            @RequestParam(value = "limit", required = false) Integer limit,
+            @RequestParam(value = "unreadOnly", defaultValue = "false") boolean unreadOnly) {
+        return ResponseEntity.ok(notificationService.getFeed(
+                currentUser(authentication, userId), before, limit, unreadOnly));
+    }
+
+    // Unread badge count, without shipping the list
+    @GetMapping("/unread-count")
+    public ResponseEntity<UnreadCount> unreadCount(Authentication authentication,
+                                                   @RequestParam(value = "userId", required = false) Long userId) {
+        Long user = currentUser(authentication, userId);
+        return ResponseEntity.ok(new UnreadCount(user, notificationService.countUnread(user)));
+    }
+
+    /**
+     * Streams the user's notifications as they are created ("notification" events, id = the
+     * notification id). Reconnects resume after the Last-Event-ID header, or the lastEventId
+     * parameter for clients that cannot set headers. Needs the bearer token, so browsers must
+     * use a fetch-based event-stream client rather than EventSource.
+     */
+    @GetMapping(path = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamNotifications(Authentication authentication,
+                                          @RequestParam(value = "userId", required = false) Long userId,
+                                          @RequestHeader(value = "Last-Event-ID", required = false) Long lastEventIdHeader,
+                                          @RequestParam(value = "lastEventId", required = false) Long lastEventId) {
+        return notificationStream.subscribe(currentUser(authentication, userId),
+                lastEventIdHeader != null ? lastEventIdHeader : lastEventId);
+    }
+
     // Mark a notification as read
-    @PostMapping("/mark-read")
+    @PostMapping(path = "/mark-read", params = "id")
     public ResponseEntity<?> markRead(@RequestParam("id") Long notificationId) {
         notificationService.markAsRead(notificationId);
         return ResponseEntity.ok("marked");
     }
+
+    // Mark many read at once: an id list, or everything up to an id ("mark all read")
+    @PostMapping("/mark-read")
+    public ResponseEntity<MarkReadResponse> markManyRead(Authentication authentication,
+                                                         @RequestBody MarkReadRequest request) {
+        Long userId = currentUser(authentication, request.getUserId());
+        boolean byIds = request.getIds() != null;
+        if (byIds == (request.getUpToId() != null)) {
+            throw new BadRequestException("Send either ids or upToId");
+        }
+        if (byIds && request.getIds().size() > MAX_MARK_READ_IDS) {
+            throw new BadRequestException("At most " + MAX_MARK_READ_IDS + " ids per request; use upToId to mark all");
+        }
+        int updated = byIds
+                ? notificationService.markRead(userId, request.getIds())
+                : notificationService.markAllRead(userId, request.getUpToId());
+        return ResponseEntity.ok(new MarkReadResponse(userId, updated));
+    }
+
+    /**
+     * The signed-in user's id (the JWT uid claim). A userId parameter is optional and must
+     * name that same user; nobody reads or marks another user's notifications through these
+     * endpoints.
+     */
+    private static Long currentUser(Authentication authentication, Long requested) {
+        Long self;
+        try {
+            self = Long.valueOf(authentication.getName());
+        } catch (NumberFormatException | NullPointerException ex) {
+            throw new AccessDeniedException("Token carries no user id");
+        }
+        if (requested != null && !requested.equals(self)) {
+            throw new AccessDeniedException("Notifications of user " + requested + " are not yours");
+        }
+        return self;
+    }
 }
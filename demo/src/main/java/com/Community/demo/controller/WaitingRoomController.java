@@ -0,0 +1,64 @@
+package com.Community.demo.controller;
+
+import com.Community.demo.payload.WaitingRoomDuty;
+import com.Community.demo.payload.WaitingRoomStats;
+import com.Community.demo.payload.WaitingTicketResponse;
+import com.Community.demo.services.WaitingRoomService;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+/**
+ * Virtual waiting room: patients queue per specialty and are paired with the next free on-duty
+ * doctor of that specialty; the ticket then carries the consultation session to join.
+ */
+@RestController
+@RequestMapping("/api/waiting-room")
+public class WaitingRoomController {
+
+    private final WaitingRoomService waitingRoomService;
+
+    public WaitingRoomController(WaitingRoomService waitingRoomService) {
+        this.waitingRoomService = waitingRoomService;
+    }
+
+    @PostMapping("/tickets")
+    public ResponseEntity<WaitingTicketResponse> join(@RequestParam("patientId") Long patientId,
+                                                      @RequestParam("specialty") String specialty) {
+        return ResponseEntity.status(HttpStatus.CREATED).body(waitingRoomService.join(patientId, specialty));
+    }
+
+    /** Poll until status is MATCHED, then join sessionId / jitsiRoom. */
+    @GetMapping("/tickets/{id}")
+    public ResponseEntity<?> getTicket(@PathVariable("id") long id) {
+        return waitingRoomService.getTicket(id).<ResponseEntity<?>>map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.NOT_FOUND).body("Ticket not found with id: " + id));
+    }
+
+    @DeleteMapping("/tickets/{id}")
+    public ResponseEntity<?> leave(@PathVariable("id") long id) {
+        return waitingRoomService.leave(id).<ResponseEntity<?>>map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.NOT_FOUND).body("Ticket not found with id: " + id));
+    }
+
+    /** Doctor checks in for their profile specialty; matchedSessionId is set if a patient was waiting. */
+    @PutMapping("/doctors/{id}/duty")
+    public ResponseEntity<?> startDuty(@PathVariable("id") Long id) {
+        return waitingRoomService.startDuty(id).<ResponseEntity<?>>map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.NOT_FOUND).body("Doctor not found with id: " + id));
+    }
+
+    @DeleteMapping("/doctors/{id}/duty")
+    public ResponseEntity<?> endDuty(@PathVariable("id") Long id) {
+        return waitingRoomService.endDuty(id).<ResponseEntity<?>>map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.NOT_FOUND).body("Doctor not found with id: " + id));
+    }
+
+    /** Queue depth and wait times per specialty. */
+    @GetMapping("/stats")
+    public ResponseEntity<List<WaitingRoomStats>> stats() {
+        return ResponseEntity.ok(waitingRoomService.stats());
+    }
+}
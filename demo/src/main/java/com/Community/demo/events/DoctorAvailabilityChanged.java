@@ -0,0 +1,4 @@
+package com.Community.demo.events;
+
+/** Published by BusyDoctors when a doctor turns busy (available = false) or free again. */
+public record DoctorAvailabilityChanged(Long doctorId, boolean available) {}
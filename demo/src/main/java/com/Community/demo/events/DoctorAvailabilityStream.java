@@ -0,0 +1,166 @@
+package com.Community.demo.events;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Fans DoctorAvailabilityChanged events out to server-sent-event subscribers.
+ *
+ * Each subscriber is a parked servlet async request with a bounded queue. Publishing only
+ * offers to the queues (it runs under the BusyDoctors lock and must never block); a subscriber
+ * whose queue is full is a slow consumer and is dropped, and its client reconnects. Queued
+ * events are written by the streamExecutor pool, at most one drain task per subscriber.
+ * A comment line is queued every doctors.stream.heartbeat-ms to keep proxies from closing idle
+ * connections and to find dead ones. Sends go through StreamSendWatchdog, which drops a
+ * subscriber whose write stays blocked on its socket.
+ */
+@Component
+public class DoctorAvailabilityStream {
+
+    private static final Logger log = LoggerFactory.getLogger(DoctorAvailabilityStream.class);
+
+    private static final Object HEARTBEAT = new Object();
+
+    private record Delta(long sequence, DoctorAvailabilityChanged change) {}
+
+    private static final class Subscriber {
+        final long id;
+        final SseEmitter emitter;
+        final BlockingQueue<Object> queue;
+        final AtomicBoolean scheduled = new AtomicBoolean();
+        volatile boolean closed;
+
+        Subscriber(long id, SseEmitter emitter, int bufferSize) {
+            this.id = id;
+            this.emitter = emitter;
+            this.queue = new ArrayBlockingQueue<>(bufferSize);
+        }
+    }
+
+    private final Map<Long, Subscriber> subscribers = new ConcurrentHashMap<>();
+    private final AtomicLong subscriberIds = new AtomicLong();
+    private final AtomicLong sequence = new AtomicLong();
+    private final Executor executor;
+    private final StreamSendWatchdog watchdog;
+
+    @Value("${doctors.stream.buffer-size:64}")
+    private int bufferSize;
+
+    @Value("${doctors.stream.timeout-ms:1800000}")
+    private long timeoutMs;
+
+    @Value("${doctors.stream.max-subscribers:20000}")
+    private int maxSubscribers;
+
+    public DoctorAvailabilityStream(@Qualifier("streamExecutor") Executor executor,
+                                    StreamSendWatchdog watchdog) {
+        this.executor = executor;
+        this.watchdog = watchdog;
+    }
+
+    public SseEmitter subscribe() {
+        if (subscribers.size() >= maxSubscribers) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Too many availability subscribers");
+        }
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        Subscriber s = new Subscriber(subscriberIds.incrementAndGet(), emitter, Math.max(2, bufferSize));
+        emitter.onCompletion(() -> close(s));
+        emitter.onTimeout(() -> close(s));
+        emitter.onError(ex -> close(s));
+        subscribers.put(s.id, s);
+        // an immediate comment commits the response headers so the client sees the stream open
+        enqueue(s, HEARTBEAT);
+        return emitter;
+    }
+
+    public int subscriberCount() {
+        return subscribers.size();
+    }
+
+    @EventListener
+    public void onAvailabilityChanged(DoctorAvailabilityChanged change) {
+        Delta delta = new Delta(sequence.incrementAndGet(), change);
+        for (Subscriber s : subscribers.values()) {
+            enqueue(s, delta);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${doctors.stream.heartbeat-ms:15000}")
+    public void heartbeat() {
+        for (Subscriber s : subscribers.values()) {
+            enqueue(s, HEARTBEAT);
+        }
+    }
+
+    private void enqueue(Subscriber s, Object message) {
+        if (!s.queue.offer(message)) {
+            log.debug("Dropping slow availability subscriber {}", s.id);
+            close(s);
+        }
+        schedule(s);
+    }
+
+    private void schedule(Subscriber s) {
+        if (!s.scheduled.compareAndSet(false, true)) return;
+        try {
+            executor.execute(() -> drain(s));
+        } catch (RejectedExecutionException ex) {
+            s.scheduled.set(false);
+            close(s);
+        }
+    }
+
+    // runs on streamExecutor; the only place that writes to or completes the emitter
+    private void drain(Subscriber s) {
+        try {
+            Object message;
+            while (!s.closed && (message = s.queue.poll()) != null) {
+                if (message == HEARTBEAT) {
+                    watchdog.send(s.emitter, SseEmitter.event().comment("keep-alive"), () -> close(s));
+                } else {
+                    Delta delta = (Delta) message;
+                    watchdog.send(s.emitter, SseEmitter.event()
+                            .id(Long.toString(delta.sequence()))
+                            .name("availability")
+                            .data(delta.change()), () -> close(s));
+                }
+            }
+        } catch (Exception ex) {
+            close(s);
+        } finally {
+            s.scheduled.set(false);
+        }
+        if (s.closed) {
+            s.queue.clear();
+            try {
+                s.emitter.complete();
+            } catch (Exception ignored) {
+                // already completed by the container
+            }
+        } else if (!s.queue.isEmpty()) {
+            schedule(s);
+        }
+    }
+
+    private void close(Subscriber s) {
+        s.closed = true;
+        subscribers.remove(s.id);
+    }
+}
@@ -0,0 +1,87 @@
+package com.Community.demo.events;
+
+import com.Community.demo.cache.AnalyticsCache;
+import com.Community.demo.cache.AnalyticsCache.Series;
+import com.Community.demo.cache.BusyDoctors;
+import com.Community.demo.cache.DoctorCalendar;
+import com.Community.demo.cache.DoctorSchedule;
+import com.Community.demo.cache.UpcomingIndexes;
+import com.Community.demo.model.ConsultationSession;
+import com.Community.demo.payload.UpcomingAppointment;
+import com.Community.demo.payload.UpcomingSession;
+import com.Community.demo.reminders.Reminder.Kind;
+import com.Community.demo.reminders.ReminderScheduler;
+import com.Community.demo.util.AfterCommit;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * JDBC batch inserts and JPQL conditional updates skip the JPA entity listeners. Paths that use
+ * them call these methods with the written rows to get the same after-commit effects:
+ * analytics eviction, DoctorSchedule, DoctorCalendar, BusyDoctors, the upcoming indexes and
+ * reminders.
+ */
+@Component
+public class ListenerEffects {
+
+    private final AnalyticsCache analyticsCache;
+    private final DoctorSchedule doctorSchedule;
+    private final UpcomingIndexes upcomingIndexes;
+    private final ReminderScheduler reminderScheduler;
+    private final DoctorCalendar doctorCalendar;
+    private final BusyDoctors busyDoctors;
+
+    public ListenerEffects(AnalyticsCache analyticsCache,
+                           DoctorSchedule doctorSchedule,
+                           UpcomingIndexes upcomingIndexes,
+                           ReminderScheduler reminderScheduler,
+                           DoctorCalendar doctorCalendar,
+                           BusyDoctors busyDoctors) {
+        this.analyticsCache = analyticsCache;
+        this.doctorSchedule = doctorSchedule;
+        this.upcomingIndexes = upcomingIndexes;
+        this.reminderScheduler = reminderScheduler;
+        this.doctorCalendar = doctorCalendar;
+        this.busyDoctors = busyDoctors;
+    }
+
+    public void appointmentsWritten(List<UpcomingAppointment> rows) {
+        if (rows.isEmpty()) return;
+        AfterCommit.run(() -> {
+            for (UpcomingAppointment row : rows) {
+                if (row.scheduledAt() != null) {
+                    analyticsCache.evict(Series.APPOINTMENTS_BY_STATUS, row.scheduledAt().toLocalDate());
+                }
+                doctorSchedule.booked(row.doctorId(), row.id(), row.scheduledAt(), row.status());
+                doctorCalendar.changed(DoctorCalendar.appointmentKey(row.id()),
+                        doctorCalendar.appointment(row.doctorId(), row.scheduledAt(), row.status()));
+                if (upcomingIndexes.isEnabled()) upcomingIndexes.appointments().upsert(row);
+                LocalDateTime at = isCancelled(row.status()) ? null : row.scheduledAt();
+                reminderScheduler.changed(Kind.APPOINTMENT, row.id(), row.patientId(), row.title(), at);
+            }
+        });
+    }
+
+    public void sessionWritten(ConsultationSession s) {
+        UpcomingSession row = new UpcomingSession(s.getId(), s.getTopic(), s.getSessionStart(), s.getMode(),
+                s.getPatient() == null ? null : s.getPatient().getId(),
+                s.getDoctor() == null ? null : s.getDoctor().getId());
+        DoctorCalendar.Booking booking = doctorCalendar.session(row.doctorId(), s.getSessionStart(), s.getSessionEnd());
+        boolean open = s.getSessionEnd() == null;
+        AfterCommit.run(() -> {
+            busyDoctors.sessionChanged(row.id(), row.doctorId(), open);
+            doctorCalendar.changed(DoctorCalendar.sessionKey(row.id()), booking);
+            if (row.sessionStart() != null) {
+                analyticsCache.evict(Series.CONSULTATIONS_BY_MODE, row.sessionStart().toLocalDate());
+            }
+            if (upcomingIndexes.isEnabled()) upcomingIndexes.sessions().upsert(row);
+            reminderScheduler.changed(Kind.CONSULTATION, row.id(), row.patientId(), row.topic(), row.sessionStart());
+        });
+    }
+
+    private static boolean isCancelled(String status) {
+        return status != null && status.toUpperCase().startsWith("CANCEL");
+    }
+}
@@ -0,0 +1,54 @@
+package com.Community.demo.events;
+
+import com.Community.demo.model.Notification;
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/** Turns one outbox event into the notifications it should produce. */
+final class NotificationFanout {
+
+    private NotificationFanout() {}
+
+    static List<Notification> notificationsFor(OutboxEventType type, JsonNode p) {
+        List<Notification> out = new ArrayList<>(2);
+        switch (type) {
+            case APPOINTMENT_BOOKED -> {
+                String title = p.path("title").isTextual() ? p.get("title").asText() : "Appointment";
+                out.add(new Notification(p.get("patientId").asLong(), "Appointment booked",
+                        "Your appointment '" + title + "' is scheduled at " + p.path("scheduledAt").asText()));
+            }
+            case CONSULTATION_STARTED -> session(out, p, "started");
+            case CONSULTATION_ENDED -> session(out, p, "ended");
+            case CONSULTATION_MATCHED -> matched(out, p);
+        }
+        return out;
+    }
+
+    private static void matched(List<Notification> out, JsonNode p) {
+        long sessionId = p.get("sessionId").asLong();
+        String specialty = p.path("specialty").asText("");
+        out.add(new Notification(p.get("patientId").asLong(), "Doctor ready",
+                "A " + specialty + " doctor is ready for you. Join consultation id=" + sessionId + " now."));
+        out.add(new Notification(p.get("doctorId").asLong(), "Next patient",
+                "Patient id=" + p.get("patientId").asText() + " from the " + specialty
+                        + " waiting room is in consultation id=" + sessionId + "."));
+    }
+
+    private static void session(List<Notification> out, JsonNode p, String what) {
+        long sessionId = p.get("sessionId").asLong();
+        JsonNode patientId = p.path("patientId");
+        JsonNode doctorId = p.path("doctorId");
+        String title = "Consultation " + what;
+        if (patientId.isNumber()) {
+            out.add(new Notification(patientId.asLong(), title,
+                    "Your consultation (id=" + sessionId + ") has " + what + "."));
+        }
+        if (doctorId.isNumber()) {
+            out.add(new Notification(doctorId.asLong(), title,
+                    "Consultation with patient id=" + (patientId.isNumber() ? patientId.asText() : "N/A")
+                            + " has " + what + "."));
+        }
+    }
+}
@@ -0,0 +1,261 @@
+package com.Community.demo.events;
+
+import com.Community.demo.model.Notification;
+import com.Community.demo.services.NotificationService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Pushes each user's new notifications to their server-sent-event subscriptions as they are
+ * committed (NotificationsCreated), so clients no longer poll the full history.
+ *
+ * The event id is the notification id. A client reconnecting with Last-Event-ID first gets
+ * the notifications it missed, oldest first, capped at notifications.stream.replay-limit; if
+ * more were missed a "gap" event tells it to reload the list instead. Live notifications that
+ * arrive while the replay is read are queued and sent after it, without repeats.
+ *
+ * Delivery works like DoctorAvailabilityStream: publishing only offers to bounded per-subscriber
+ * queues, a full queue or a send blocked past StreamSendWatchdog's limit drops the (slow)
+ * subscriber, and streamExecutor writes the queues out with at most one drain task per
+ * subscriber.
+ */
+@Component
+public class NotificationStream {
+
+    private static final Logger log = LoggerFactory.getLogger(NotificationStream.class);
+
+    private static final Object HEARTBEAT = new Object();
+
+    private record Gap(long lastEventId) {}
+
+    private static final class Subscriber {
+        final long id;
+        final Long userId;
+        final SseEmitter emitter;
+        final BlockingQueue<Object> queue;
+        // held true until the replay is loaded, so nothing live is sent ahead of it
+        final AtomicBoolean scheduled = new AtomicBoolean(true);
+        volatile List<Object> replay = List.of();
+        volatile Set<Long> replayedIds = Set.of();
+        volatile boolean closed;
+
+        Subscriber(long id, Long userId, SseEmitter emitter, int bufferSize) {
+            this.id = id;
+            this.userId = userId;
+            this.emitter = emitter;
+            this.queue = new ArrayBlockingQueue<>(bufferSize);
+        }
+    }
+
+    private final Map<Long, Set<Subscriber>> byUser = new ConcurrentHashMap<>();
+    private final AtomicInteger subscriberCount = new AtomicInteger();
+    private final AtomicLong subscriberIds = new AtomicLong();
+    private final NotificationService notificationService;
+    private final Executor executor;
+    private final StreamSendWatchdog watchdog;
+
+    @Value("${notifications.stream.buffer-size:64}")
+    private int bufferSize;
+
+    @Value("${notifications.stream.replay-limit:100}")
+    private int replayLimit;
+
+    @Value("${notifications.stream.timeout-ms:1800000}")
+    private long timeoutMs;
+
+    @Value("${notifications.stream.max-subscribers:20000}")
+    private int maxSubscribers;
+
+    @Value("${notifications.stream.max-per-user:5}")
+    private int maxPerUser;
+
+    public NotificationStream(NotificationService notificationService,
+                              @Qualifier("streamExecutor") Executor executor,
+                              StreamSendWatchdog watchdog) {
+        this.notificationService = notificationService;
+        this.executor = executor;
+        this.watchdog = watchdog;
+    }
+
+    /** Opens a stream for the user; {@code lastEventId} (may be null) is the last notification id seen. */
+    public SseEmitter subscribe(Long userId, Long lastEventId) {
+        if (subscriberCount.get() >= maxSubscribers) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Too many notification subscribers");
+        }
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        Subscriber s = new Subscriber(subscriberIds.incrementAndGet(), userId, emitter, Math.max(2, bufferSize));
+        boolean[] added = {false};
+        byUser.compute(userId, (id, set) -> {
+            if (set == null) set = ConcurrentHashMap.newKeySet();
+            if (set.size() < Math.max(1, maxPerUser)) {
+                set.add(s);
+                added[0] = true;
+            }
+            return set.isEmpty() ? null : set;
+        });
+        if (!added[0]) {
+            throw new ResponseStatusException(HttpStatus.TOO_MANY_REQUESTS, "Too many notification streams for user " + userId);
+        }
+        subscriberCount.incrementAndGet();
+        emitter.onCompletion(() -> close(s));
+        emitter.onTimeout(() -> close(s));
+        emitter.onError(ex -> close(s));
+
+        // registered before the replay is read, so a notification committed meanwhile is not missed
+        try {
+            s.replay = replay(s, lastEventId);
+        } catch (RuntimeException ex) {
+            close(s);
+            throw ex;
+        }
+        s.scheduled.set(false);
+        schedule(s);
+        return emitter;
+    }
+
+    public int subscriberCount() {
+        return subscriberCount.get();
+    }
+
+    @EventListener
+    public void onNotificationsCreated(NotificationsCreated created) {
+        for (Notification n : created.notifications()) {
+            Set<Subscriber> set = byUser.get(n.getUserId());
+            if (set == null) continue;
+            for (Subscriber s : set) {
+                enqueue(s, n);
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${notifications.stream.heartbeat-ms:15000}")
+    public void heartbeat() {
+        for (Set<Subscriber> set : byUser.values()) {
+            for (Subscriber s : set) {
+                enqueue(s, HEARTBEAT);
+            }
+        }
+    }
+
+    private List<Object> replay(Subscriber s, Long lastEventId) {
+        List<Object> out = new ArrayList<>();
+        // an immediate comment commits the response headers so the client sees the stream open
+        out.add(HEARTBEAT);
+        if (lastEventId == null) return out;
+        int limit = Math.max(1, replayLimit);
+        List<Notification> missed = new ArrayList<>(notificationService.getNotificationsAfter(s.userId, lastEventId, limit + 1));
+        if (missed.size() > limit) {
+            missed = missed.subList(0, limit);
+            out.add(new Gap(lastEventId));
+        }
+        Collections.reverse(missed);
+        Set<Long> ids = new HashSet<>();
+        for (Notification n : missed) {
+            ids.add(n.getId());
+            out.add(n);
+        }
+        s.replayedIds = ids;
+        return out;
+    }
+
+    private void enqueue(Subscriber s, Object message) {
+        if (!s.queue.offer(message)) {
+            log.debug("Dropping slow notification subscriber {} of user {}", s.id, s.userId);
+            close(s);
+        }
+        schedule(s);
+    }
+
+    private void schedule(Subscriber s) {
+        if (!s.scheduled.compareAndSet(false, true)) return;
+        try {
+            executor.execute(() -> drain(s));
+        } catch (RejectedExecutionException ex) {
+            s.scheduled.set(false);
+            close(s);
+        }
+    }
+
+    // runs on streamExecutor; the only place that writes to or completes the emitter
+    private void drain(Subscriber s) {
+        try {
+            List<Object> replay = s.replay;
+            if (!replay.isEmpty()) {
+                s.replay = List.of();
+                for (Object message : replay) {
+                    if (s.closed) break;
+                    send(s, message);
+                }
+            }
+            Object message;
+            while (!s.closed && (message = s.queue.poll()) != null) {
+                if (message instanceof Notification n && s.replayedIds.contains(n.getId())) continue;
+                send(s, message);
+            }
+        } catch (Exception ex) {
+            close(s);
+        } finally {
+            s.scheduled.set(false);
+        }
+        if (s.closed) {
+            s.queue.clear();
+            try {
+                s.emitter.complete();
+            } catch (Exception ignored) {
+                // already completed by the container
+            }
+        } else if (!s.queue.isEmpty()) {
+            schedule(s);
+        }
+    }
+
+    private void send(Subscriber s, Object message) throws Exception {
+        SseEmitter.SseEventBuilder event;
+        if (message == HEARTBEAT) {
+            event = SseEmitter.event().comment("keep-alive");
+        } else if (message instanceof Gap gap) {
+            event = SseEmitter.event().name("gap").data(Map.of("lastEventId", gap.lastEventId()));
+        } else {
+            Notification n = (Notification) message;
+            event = SseEmitter.event()
+                    .id(Long.toString(n.getId()))
+                    .name("notification")
+                    .data(n);
+        }
+        watchdog.send(s.emitter, event, () -> close(s));
+    }
+
+    private void close(Subscriber s) {
+        if (s.closed) return;
+        s.closed = true;
+        boolean[] removed = {false};
+        byUser.computeIfPresent(s.userId, (id, set) -> {
+            removed[0] = set.remove(s);
+            return set.isEmpty() ? null : set;
+        });
+        if (removed[0]) subscriberCount.decrementAndGet();
+    }
+}
@@ -0,0 +1,8 @@
+package com.Community.demo.events;
+
+import com.Community.demo.model.Notification;
+
+import java.util.List;
+
+/** Published once notifications are committed to the table (ids are set). */
+public record NotificationsCreated(List<Notification> notifications) {}
@@ -0,0 +1,116 @@
+package com.Community.demo.events;
+
+import com.Community.demo.model.Notification;
+import com.Community.demo.model.OutboxEvent;
+import com.Community.demo.repository.OutboxEventRepository;
+import com.Community.demo.services.NotificationService;
+import com.Community.demo.services.NotificationService.Delivery;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Drains the outbox in batches on a background thread. Each batch is claimed with SKIP LOCKED,
+ * fanned out into Notification rows with one batched insert, and deleted in the same transaction.
+ *
+ * An event that cannot be handled is retried with exponential backoff (outbox.retry-base-ms,
+ * doubling up to outbox.retry-max-ms) and marked FAILED after outbox.max-attempts. If the batch
+ * insert itself fails, the whole batch is pushed back the same way.
+ */
+@Component
+public class OutboxDispatcher {
+
+    private static final Logger log = LoggerFactory.getLogger(OutboxDispatcher.class);
+
+    private final OutboxEventRepository repository;
+    private final NotificationService notificationService;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate tx;
+
+    @Value("${outbox.batch-size:200}")
+    private int batchSize;
+
+    @Value("${outbox.max-attempts:8}")
+    private int maxAttempts;
+
+    @Value("${outbox.retry-base-ms:1000}")
+    private long retryBaseMs;
+
+    @Value("${outbox.retry-max-ms:600000}")
+    private long retryMaxMs;
+
+    public OutboxDispatcher(OutboxEventRepository repository,
+                            NotificationService notificationService,
+                            ObjectMapper objectMapper,
+                            PlatformTransactionManager transactionManager) {
+        this.repository = repository;
+        this.notificationService = notificationService;
+        this.objectMapper = objectMapper;
+        this.tx = new TransactionTemplate(transactionManager);
+    }
+
+    @Scheduled(fixedDelayString = "${outbox.poll-interval-ms:1000}")
+    public void drain() {
+        // keep going while batches come back full so a backlog clears without waiting a tick each
+        int handled;
+        do {
+            handled = dispatchBatch();
+        } while (handled >= Math.max(1, batchSize));
+    }
+
+    /** Handles one batch and returns how many events were claimed. */
+    int dispatchBatch() {
+        List<Long> claimed = new ArrayList<>();
+        try {
+            Integer count = tx.execute(status -> {
+                List<OutboxEvent> events = repository.claimDue(LocalDateTime.now(), Limit.of(Math.max(1, batchSize)));
+                List<Notification> notifications = new ArrayList<>();
+                List<OutboxEvent> done = new ArrayList<>();
+                for (OutboxEvent e : events) {
+                    claimed.add(e.getId());
+                    try {
+                        notifications.addAll(NotificationFanout.notificationsFor(
+                                OutboxEventType.valueOf(e.getEventType()), objectMapper.readTree(e.getPayload())));
+                        done.add(e);
+                    } catch (Exception ex) {
+                        backOff(e, ex);
+                    }
+                }
+                notificationService.send(notifications, Delivery.BEFORE_COMMIT);
+                repository.deleteAllInBatch(done);
+                return events.size();
+            });
+            return count == null ? 0 : count;
+        } catch (Exception ex) {
+            log.warn("Outbox batch of {} events failed, will retry: {}", claimed.size(), ex.getMessage());
+            tx.executeWithoutResult(status ->
+                    repository.findAllById(claimed).forEach(e -> backOff(e, ex)));
+            return 0;
+        }
+    }
+
+    private void backOff(OutboxEvent e, Exception cause) {
+        int attempts = e.getAttempts() + 1;
+        e.setAttempts(attempts);
+        String message = String.valueOf(cause.getMessage());
+        e.setLastError(message.length() > 1000 ? message.substring(0, 1000) : message);
+        if (attempts >= maxAttempts) {
+            e.setStatus(OutboxEvent.FAILED);
+            log.error("Outbox event {} ({}) failed permanently after {} attempts: {}",
+                    e.getId(), e.getEventType(), attempts, cause.getMessage());
+        } else {
+            long delay = Math.min(retryMaxMs, retryBaseMs << Math.min(attempts - 1, 30));
+            e.setAvailableAt(LocalDateTime.now().plusNanos(delay * 1_000_000));
+        }
+    }
+}
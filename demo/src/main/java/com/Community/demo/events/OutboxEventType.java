@@ -0,0 +1,13 @@
+package com.Community.demo.events;
+
+/** Event types written to the outbox; the payload of each is a flat JSON object. */
+public enum OutboxEventType {
+    /** patientId, title, scheduledAt */
+    APPOINTMENT_BOOKED,
+    /** sessionId, patientId, doctorId */
+    CONSULTATION_STARTED,
+    /** sessionId, patientId, doctorId */
+    CONSULTATION_ENDED,
+    /** sessionId, patientId, doctorId, specialty: the waiting room paired a patient with a doctor */
+    CONSULTATION_MATCHED
+}
@@ -0,0 +1,61 @@
+package com.Community.demo.events;
+
+import com.Community.demo.model.OutboxEvent;
+import com.Community.demo.repository.OutboxEventRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Appends events to the outbox as part of the caller's transaction: one small insert that
+ * commits or rolls back together with the business change. Delivery happens in OutboxDispatcher.
+ */
+@Component
+public class OutboxPublisher {
+
+    private final OutboxEventRepository repository;
+    private final ObjectMapper objectMapper;
+
+    public OutboxPublisher(OutboxEventRepository repository, ObjectMapper objectMapper) {
+        this.repository = repository;
+        this.objectMapper = objectMapper;
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void append(OutboxEventType type, Map<String, ?> payload) {
+        repository.save(event(type, payload, LocalDateTime.now()));
+    }
+
+    /** Same as {@link #append} for many events of one type, written with one JDBC batch. */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void appendAll(OutboxEventType type, List<? extends Map<String, ?>> payloads) {
+        if (payloads.isEmpty()) return;
+        LocalDateTime now = LocalDateTime.now();
+        List<OutboxEvent> events = new ArrayList<>(payloads.size());
+        for (Map<String, ?> payload : payloads) {
+            events.add(event(type, payload, now));
+        }
+        repository.insertBatch(events);
+    }
+
+    private OutboxEvent event(OutboxEventType type, Map<String, ?> payload, LocalDateTime now) {
+        try {
+            return OutboxEvent.builder()
+                    .eventType(type.name())
+                    .payload(objectMapper.writeValueAsString(payload))
+                    .status(OutboxEvent.PENDING)
+                    .availableAt(now)
+                    .createdAt(now)
+                    .build();
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Outbox payload is not serializable: " + e.getMessage(), e);
+        }
+    }
+}
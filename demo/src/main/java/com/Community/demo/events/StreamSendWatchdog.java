@@ -0,0 +1,117 @@
+package com.Community.demo.events;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Puts a time limit on the server-sent-event writes of DoctorAvailabilityStream and
+ * NotificationStream. A write to a stalled socket blocks its streamExecutor thread until the
+ * container's write timeout, and with a few such writes the small pool would stop serving
+ * every other subscriber.
+ *
+ * Every send is registered while it runs. Each doctors.stream.send-check-ms the watchdog drops
+ * the subscribers whose send has run longer than doctors.stream.send-timeout-ms, like a slow
+ * consumer with a full queue, so nothing more is scheduled for them. It also raises the pool's
+ * core size by the number of stuck sends (up to doctors.stream.max-send-threads), so queued
+ * drains keep running while those threads wait out the socket; the size comes back down as
+ * they return.
+ *
+ * The check runs on its own thread rather than the shared @Scheduled pool, so a long
+ * scheduled job can never keep it from freeing the stream pool.
+ */
+@Component
+public class StreamSendWatchdog {
+
+    private static final Logger log = LoggerFactory.getLogger(StreamSendWatchdog.class);
+
+    private static final class Sending {
+        final long startedNanos = System.nanoTime();
+        final Runnable drop;
+        final AtomicBoolean dropped = new AtomicBoolean();
+
+        Sending(Runnable drop) {
+            this.drop = drop;
+        }
+    }
+
+    private final Set<Sending> inProgress = ConcurrentHashMap.newKeySet();
+    private final ThreadPoolTaskExecutor executor;
+    private final int baseThreads;
+    private final ScheduledExecutorService checker = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "sse-watchdog");
+        t.setDaemon(true);
+        return t;
+    });
+
+    @Value("${doctors.stream.send-timeout-ms:5000}")
+    private long sendTimeoutMs;
+
+    @Value("${doctors.stream.send-check-ms:1000}")
+    private long checkIntervalMs;
+
+    public StreamSendWatchdog(@Qualifier("streamExecutor") ThreadPoolTaskExecutor executor) {
+        this.executor = executor;
+        this.baseThreads = executor.getCorePoolSize();
+    }
+
+    @PostConstruct
+    void start() {
+        long interval = Math.max(1, checkIntervalMs);
+        checker.scheduleWithFixedDelay(() -> {
+            try {
+                check();
+            } catch (RuntimeException ex) {
+                log.warn("Stream send check failed: {}", ex.getMessage());
+            }
+        }, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void stop() {
+        checker.shutdownNow();
+    }
+
+    /** Sends the event; {@code drop} runs (on the watchdog thread) if the send outlives the limit. */
+    public void send(SseEmitter emitter, SseEmitter.SseEventBuilder event, Runnable drop) throws IOException {
+        Sending sending = new Sending(drop);
+        inProgress.add(sending);
+        try {
+            emitter.send(event);
+        } finally {
+            inProgress.remove(sending);
+        }
+    }
+
+    /** One watchdog pass; runs on the sse-watchdog thread every doctors.stream.send-check-ms. */
+    public void check() {
+        long cutoff = System.nanoTime() - TimeUnit.MILLISECONDS.toNanos(sendTimeoutMs);
+        int stuck = 0;
+        for (Sending sending : inProgress) {
+            if (sending.startedNanos - cutoff > 0) continue;
+            stuck++;
+            if (sending.dropped.compareAndSet(false, true)) {
+                log.debug("Dropping stream subscriber whose send has been blocked over {} ms", sendTimeoutMs);
+                sending.drop.run();
+            }
+        }
+        int threads = Math.min(executor.getMaxPoolSize(), baseThreads + stuck);
+        if (threads != executor.getCorePoolSize()) {
+            executor.setCorePoolSize(threads);
+        }
+    }
+}
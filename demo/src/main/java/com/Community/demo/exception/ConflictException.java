@@ -0,0 +1,14 @@
+package com.Community.demo.exception;
+
+/**
+ * Thrown when a write collides with existing state (HTTP 409), e.g. a doctor already booked
+ * for the requested slot.
+ *
+ * It is handled globally by GlobalExceptionHandler.
+ */
+public class ConflictException extends RuntimeException {
+
+    public ConflictException(String message) {
+        super(message);
+    }
+}
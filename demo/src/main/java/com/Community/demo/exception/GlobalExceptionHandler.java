@@ -2,7 +2,9 @@ package com.Community.demo.exception;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.converter.HttpMessageNotReadableException;
 import org.springframework.security.access.AccessDeniedException;
@@ -11,6 +13,7 @@ import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.server.ResponseStatusException;
 
 import jakarta.servlet.http.HttpServletRequest;
 import java.time.Instant;
@@ -39,6 +42,32 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(err, HttpStatus.BAD_REQUEST);
     }
 
+    @ExceptionHandler(ConflictException.class)
+    public ResponseEntity<ErrorResponse> handleConflict(ConflictException ex, HttpServletRequest request) {
+        log.warn("Conflict: {}", ex.getMessage());
+        ErrorResponse err = new ErrorResponse(Instant.now().toString(),
+                HttpStatus.CONFLICT.value(),
+                "Conflict",
+                ex.getMessage(),
+                request.getRequestURI(),
+                null);
+        return new ResponseEntity<>(err, HttpStatus.CONFLICT);
+    }
+
+    /** A versioned entity was changed by another request between this one's read and its write. */
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<ErrorResponse> handleStaleWrite(OptimisticLockingFailureException ex,
+                                                          HttpServletRequest request) {
+        log.warn("Concurrent modification: {}", ex.getMessage());
+        ErrorResponse err = new ErrorResponse(Instant.now().toString(),
+                HttpStatus.CONFLICT.value(),
+                "Conflict",
+                "The record was changed by someone else; reload and retry",
+                request.getRequestURI(),
+                null);
+        return new ResponseEntity<>(err, HttpStatus.CONFLICT);
+    }
+
     @ExceptionHandler(MethodArgumentNotValidException.class)
     public ResponseEntity<ErrorResponse> handleValidation(MethodArgumentNotValidException ex,
                                                           HttpServletRequest request) {
@@ -81,7 +110,25 @@ public class GlobalExceptionHandler {
                 ex.getMessage(),
                 request.getRequestURI(),
                 null);
-        return new ResponseEntity<>(err, HttpStatus.FORBIDDEN);
+        // JSON even when the client only accepts text/event-stream
+        return ResponseEntity.status(HttpStatus.FORBIDDEN).contentType(MediaType.APPLICATION_JSON).body(err);
+    }
+
+    /**
+     * Thrown with an explicit status, e.g. 503 when a stream has no room for another subscriber.
+     * The content type is set up front because stream clients only accept text/event-stream.
+     */
+    @ExceptionHandler(ResponseStatusException.class)
+    public ResponseEntity<ErrorResponse> handleStatus(ResponseStatusException ex, HttpServletRequest request) {
+        log.warn("{}: {}", ex.getStatusCode(), ex.getReason());
+        HttpStatus status = HttpStatus.resolve(ex.getStatusCode().value());
+        ErrorResponse err = new ErrorResponse(Instant.now().toString(),
+                ex.getStatusCode().value(),
+                status != null ? status.getReasonPhrase() : ex.getStatusCode().toString(),
+                ex.getReason(),
+                request.getRequestURI(),
+                null);
+        return ResponseEntity.status(ex.getStatusCode()).contentType(MediaType.APPLICATION_JSON).body(err);
     }
 
     @ExceptionHandler(Exception.class)
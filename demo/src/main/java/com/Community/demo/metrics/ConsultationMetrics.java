@@ -0,0 +1,124 @@
+package com.Community.demo.metrics;
+
+import com.Community.demo.payload.LatencySummary;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+/**
+ * Rolling-window histograms of consultation timings, fed by ConsultationServiceImpl and
+ * served on /api/admin/metrics/consultations.
+ *
+ * Each metric is kept for all sessions, per mode and per doctor. A histogram is created on
+ * first use and is fixed-size after that (see RollingHistogram); once
+ * metrics.consultations.max-doctors doctors are tracked, new doctors only count towards the
+ * "all" and mode figures. The window is metrics.consultations.slices slices of
+ * metrics.consultations.slice-seconds each.
+ */
+@Component
+public class ConsultationMetrics {
+
+    private static final Logger log = LoggerFactory.getLogger(ConsultationMetrics.class);
+
+    public enum Metric {
+        /** sessionStart to sessionEnd */
+        DURATION("seconds", 24L * 3600),
+        /** linked appointment's scheduledAt to sessionStart; early starts count as 0 */
+        START_DELAY("seconds", 7L * 24 * 3600),
+        /** server time of startSession, including the commit */
+        START_LATENCY("micros", 10_000_000L),
+        /** server time of endSession, including the commit */
+        END_LATENCY("micros", 10_000_000L);
+
+        private final String unit;
+        private final long maxValue;
+
+        Metric(String unit, long maxValue) {
+            this.unit = unit;
+            this.maxValue = maxValue;
+        }
+    }
+
+    private record Key(Metric metric, String dimension) {}
+
+    public static final String ALL = "all";
+
+    private final Map<Key, RollingHistogram> histograms = new ConcurrentHashMap<>();
+    private final Map<Long, Boolean> trackedDoctors = new ConcurrentHashMap<>();
+
+    @Value("${metrics.consultations.slices:6}")
+    private int slices;
+
+    @Value("${metrics.consultations.slice-seconds:600}")
+    private long sliceSeconds;
+
+    // about 55 KB of histograms per tracked doctor with the default window
+    @Value("${metrics.consultations.max-doctors:500}")
+    private int maxDoctors;
+
+    public void record(Metric metric, Long doctorId, String mode, long value) {
+        histogram(metric, ALL).record(value);
+        if (mode != null) histogram(metric, modeDimension(mode)).record(value);
+        if (doctorId != null && tracked(doctorId)) histogram(metric, doctorDimension(doctorId)).record(value);
+    }
+
+    /** Mode is free text from clients; anything but ONLINE/OFFLINE shares one histogram. */
+    public static String modeDimension(String mode) {
+        String m = mode.trim().toUpperCase(Locale.ROOT);
+        return "mode:" + (m.equals("ONLINE") || m.equals("OFFLINE") ? m : "OTHER");
+    }
+
+    public static String doctorDimension(Long doctorId) {
+        return "doctor:" + doctorId;
+    }
+
+    /**
+     * Summaries whose dimension passes the filter, ordered by metric then dimension; empty
+     * histograms are left out.
+     */
+    public List<LatencySummary> summaries(Predicate<String> dimensions) {
+        long window = sliceSeconds * Math.max(1, slices);
+        List<LatencySummary> out = new ArrayList<>();
+        histograms.forEach((key, histogram) -> {
+            if (!dimensions.test(key.dimension())) return;
+            RollingHistogram.Snapshot s = histogram.snapshot();
+            if (s.count() == 0) return;
+            out.add(new LatencySummary(key.metric().name(), key.metric().unit, key.dimension(), s.count(),
+                    s.percentile(50), s.percentile(90), s.percentile(99), s.max(),
+                    Math.round(s.mean() * 10) / 10.0, window));
+        });
+        out.sort(Comparator.comparing(LatencySummary::metric).thenComparing(LatencySummary::dimension));
+        return out;
+    }
+
+    @Scheduled(fixedRateString = "${metrics.consultations.slice-seconds:600}",
+            initialDelayString = "${metrics.consultations.slice-seconds:600}", timeUnit = TimeUnit.SECONDS)
+    public void rotate() {
+        histograms.values().forEach(RollingHistogram::rotate);
+    }
+
+    private boolean tracked(Long doctorId) {
+        if (trackedDoctors.containsKey(doctorId)) return true;
+        if (trackedDoctors.size() >= maxDoctors) return false;
+        if (trackedDoctors.putIfAbsent(doctorId, Boolean.TRUE) == null && trackedDoctors.size() == maxDoctors) {
+            log.info("Consultation metrics now track {} doctors; further doctors are only counted in totals", maxDoctors);
+        }
+        return true;
+    }
+
+    private RollingHistogram histogram(Metric metric, String dimension) {
+        return histograms.computeIfAbsent(new Key(metric, dimension),
+                k -> new RollingHistogram(metric.maxValue, slices));
+    }
+}
@@ -0,0 +1,57 @@
+package com.Community.demo.metrics;
+
+import com.Community.demo.metrics.EntityCounters.Counter;
+import com.Community.demo.model.Appointment;
+import com.Community.demo.model.ConsultationSession;
+import com.Community.demo.model.Notification;
+import com.Community.demo.model.Screening;
+import com.Community.demo.model.User;
+import com.Community.demo.model.VitalReading;
+import com.Community.demo.util.AfterCommit;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+
+/**
+ * JPA lifecycle callbacks that keep EntityCounters in step with inserts and deletes.
+ * Instantiated by Hibernate through Spring's bean container, so the constructor is autowired.
+ * Counter changes are applied after commit so rolled-back writes are never counted.
+ */
+public class EntityCountListener {
+
+    private final EntityCounters counters;
+
+    public EntityCountListener(EntityCounters counters) {
+        this.counters = counters;
+    }
+
+    @PostPersist
+    public void onPersist(Object entity) {
+        apply(entity, 1);
+    }
+
+    @PostRemove
+    public void onRemove(Object entity) {
+        apply(entity, -1);
+    }
+
+    private void apply(Object entity, long delta) {
+        if (entity instanceof User) {
+            bump(Counter.USERS, delta);
+        } else if (entity instanceof Appointment) {
+            bump(Counter.APPOINTMENTS, delta);
+        } else if (entity instanceof Screening) {
+            bump(Counter.SCREENINGS, delta);
+        } else if (entity instanceof VitalReading) {
+            bump(Counter.VITALS, delta);
+        } else if (entity instanceof ConsultationSession s) {
+            bump(Counter.CONSULTATIONS, delta);
+            if (s.getSessionEnd() == null) bump(Counter.ACTIVE_SESSIONS, delta);
+        } else if (entity instanceof Notification n) {
+            if (!n.isRead()) bump(Counter.UNREAD_NOTIFICATIONS, delta);
+        }
+    }
+
+    private void bump(Counter counter, long delta) {
+        AfterCommit.run(() -> counters.add(counter, delta));
+    }
+}
@@ -0,0 +1,64 @@
+package com.Community.demo.metrics;
+
+import com.Community.demo.metrics.EntityCounters.Counter;
+import com.Community.demo.repository.AppointmentRepository;
+import com.Community.demo.repository.ConsultationRepository;
+import com.Community.demo.repository.NotificationRepository;
+import com.Community.demo.repository.ScreeningRepository;
+import com.Community.demo.repository.UserRepository;
+import com.Community.demo.repository.VitalRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Seeds EntityCounters at startup and re-syncs them with the database every
+ * stats.reconcile-interval-ms (default 5 minutes). This is the only place the COUNT(*)
+ * queries still run; /api/admin/stats itself never hits the database.
+ */
+@Component
+public class EntityCountReconciler {
+
+    private static final Logger log = LoggerFactory.getLogger(EntityCountReconciler.class);
+
+    private final EntityCounters counters;
+    private final UserRepository userRepository;
+    private final AppointmentRepository appointmentRepository;
+    private final ScreeningRepository screeningRepository;
+    private final VitalRepository vitalRepository;
+    private final ConsultationRepository consultationRepository;
+    private final NotificationRepository notificationRepository;
+
+    public EntityCountReconciler(EntityCounters counters,
+                                 UserRepository userRepository,
+                                 AppointmentRepository appointmentRepository,
+                                 ScreeningRepository screeningRepository,
+                                 VitalRepository vitalRepository,
+                                 ConsultationRepository consultationRepository,
+                                 NotificationRepository notificationRepository) {
+        this.counters = counters;
+        this.userRepository = userRepository;
+        this.appointmentRepository = appointmentRepository;
+        this.screeningRepository = screeningRepository;
+        this.vitalRepository = vitalRepository;
+        this.consultationRepository = consultationRepository;
+        this.notificationRepository = notificationRepository;
+    }
+
+    @Scheduled(fixedDelayString = "${stats.reconcile-interval-ms:300000}")
+    public void reconcile() {
+        try {
+            counters.reconcile(Counter.USERS, userRepository::count);
+            counters.reconcile(Counter.APPOINTMENTS, appointmentRepository::count);
+            counters.reconcile(Counter.SCREENINGS, screeningRepository::count);
+            counters.reconcile(Counter.VITALS, vitalRepository::count);
+            counters.reconcile(Counter.CONSULTATIONS, consultationRepository::count);
+            counters.reconcile(Counter.ACTIVE_SESSIONS, consultationRepository::countBySessionEndIsNull);
+            counters.reconcile(Counter.UNREAD_NOTIFICATIONS, notificationRepository::countByReadFalse);
+            log.debug("Entity counters reconciled with database");
+        } catch (Exception ex) {
+            log.warn("Entity counter reconciliation failed: {}", ex.getMessage());
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.Community.demo.metrics;
+
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * In-process row counters behind /api/admin/stats.
+ *
+ * Each counter is a LongAdder (internally striped, so concurrent writers don't contend).
+ * Totals are moved by EntityCountListener on persist/remove; the two gauges (active sessions,
+ * unread notifications) are also moved by the services that flip them. EntityCountReconciler
+ * periodically corrects any drift against the database.
+ *
+ * Deliberately has no dependencies: it is reached from a JPA entity listener while the
+ * EntityManagerFactory is still being built.
+ */
+@Component
+public class EntityCounters {
+
+    public enum Counter {
+        USERS,
+        APPOINTMENTS,
+        SCREENINGS,
+        VITALS,
+        CONSULTATIONS,
+        ACTIVE_SESSIONS,
+        UNREAD_NOTIFICATIONS
+    }
+
+    private final Map<Counter, LongAdder> counters = new EnumMap<>(Counter.class);
+
+    public EntityCounters() {
+        for (Counter c : Counter.values()) {
+            counters.put(c, new LongAdder());
+        }
+    }
+
+    public void add(Counter counter, long delta) {
+        counters.get(counter).add(delta);
+    }
+
+    public long get(Counter counter) {
+        return Math.max(0, counters.get(counter).sum());
+    }
+
+    /**
+     * Moves the counter by the difference between {@code count} (a database COUNT) and the
+     * value read just before it ran. Increments that land while the query runs stay on top of
+     * the database value instead of being overwritten. A write that commits during the query
+     * may be counted twice or not at all; the next reconcile settles it.
+     */
+    public void reconcile(Counter counter, LongSupplier count) {
+        LongAdder adder = counters.get(counter);
+        long seen = adder.sum();
+        adder.add(count.getAsLong() - seen);
+    }
+}
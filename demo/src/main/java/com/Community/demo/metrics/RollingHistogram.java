@@ -0,0 +1,135 @@
+package com.Community.demo.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Fixed-memory, log-linear histogram of non-negative longs over a rolling window (HDR-style).
+ *
+ * Values below 32 get their own bucket; above that each power of two is split into 16 linear
+ * sub-buckets, so any recorded value is reported within about 6% of itself. Values above
+ * {@code maxValue} are clamped into the top bucket. Memory is {@code slices * buckets} longs,
+ * fixed at construction.
+ *
+ * Recording is one atomic increment on the current slice and never blocks. {@link #rotate()}
+ * (called every slice interval by a single scheduler thread) clears the oldest slice and makes
+ * it current; a writer that read the old index a moment earlier still lands in a slice inside
+ * the window, so nothing is lost or double-cleared.
+ */
+public final class RollingHistogram {
+
+    private static final int LINEAR = 32;
+    private static final int SUB_BITS = 4;
+    private static final int SUB = 1 << SUB_BITS;
+    // first power of two that is split into sub-buckets: 2^5 = LINEAR
+    private static final int FIRST_SPLIT = 5;
+
+    private final long maxValue;
+    private final int buckets;
+    private final AtomicLongArray[] slices;
+    private volatile int current;
+
+    public RollingHistogram(long maxValue, int slices) {
+        this.maxValue = Math.max(LINEAR, maxValue);
+        this.buckets = index(this.maxValue) + 1;
+        this.slices = new AtomicLongArray[Math.max(1, slices)];
+        for (int i = 0; i < this.slices.length; i++) {
+            this.slices[i] = new AtomicLongArray(buckets);
+        }
+    }
+
+    public void record(long value) {
+        long v = Math.min(Math.max(0, value), maxValue);
+        slices[current].incrementAndGet(index(v));
+    }
+
+    /** Starts a new slice, dropping the oldest one. Single caller at a time. */
+    public void rotate() {
+        int next = (current + 1) % slices.length;
+        AtomicLongArray slice = slices[next];
+        for (int i = 0; i < buckets; i++) {
+            if (slice.get(i) != 0) slice.set(i, 0);
+        }
+        current = next;
+    }
+
+    /** Sum of every slice in the window. */
+    public Snapshot snapshot() {
+        long[] counts = new long[buckets];
+        for (AtomicLongArray slice : slices) {
+            for (int i = 0; i < buckets; i++) {
+                counts[i] += slice.get(i);
+            }
+        }
+        return new Snapshot(counts);
+    }
+
+    static int index(long v) {
+        if (v < LINEAR) return (int) v;
+        int msb = 63 - Long.numberOfLeadingZeros(v);
+        int shift = msb - SUB_BITS;
+        return LINEAR + (msb - FIRST_SPLIT) * SUB + (int) ((v >>> shift) - SUB);
+    }
+
+    /** Smallest value that maps to the bucket. */
+    static long lowerBound(int index) {
+        if (index < LINEAR) return index;
+        int msb = (index - LINEAR) / SUB + FIRST_SPLIT;
+        int sub = (index - LINEAR) % SUB;
+        return (long) (SUB + sub) << (msb - SUB_BITS);
+    }
+
+    static long upperBound(int index) {
+        if (index < LINEAR) return index;
+        int msb = (index - LINEAR) / SUB + FIRST_SPLIT;
+        return lowerBound(index) + (1L << (msb - SUB_BITS)) - 1;
+    }
+
+    /** Immutable merged counts with percentile queries. */
+    public static final class Snapshot {
+        private final long[] counts;
+        private final long total;
+
+        Snapshot(long[] counts) {
+            this.counts = counts;
+            long sum = 0;
+            for (long c : counts) sum += c;
+            this.total = sum;
+        }
+
+        public long count() {
+            return total;
+        }
+
+        /** Value at the percentile (0-100), reported as the middle of its bucket; 0 when empty. */
+        public long percentile(double p) {
+            if (total == 0) return 0;
+            long rank = Math.max(1, (long) Math.ceil(total * Math.min(100.0, Math.max(0.0, p)) / 100.0));
+            long seen = 0;
+            for (int i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if (seen >= rank) return mid(i);
+            }
+            return mid(counts.length - 1);
+        }
+
+        public long max() {
+            for (int i = counts.length - 1; i >= 0; i--) {
+                if (counts[i] != 0) return upperBound(i);
+            }
+            return 0;
+        }
+
+        public double mean() {
+            if (total == 0) return 0;
+            double sum = 0;
+            for (int i = 0; i < counts.length; i++) {
+                if (counts[i] != 0) sum += (double) counts[i] * mid(i);
+            }
+            return sum / total;
+        }
+
+        private static long mid(int index) {
+            return (lowerBound(index) + upperBound(index)) / 2;
+        }
+    }
+}
@@ -1,15 +1,32 @@
 package com.Community.demo.model;
 
+import com.Community.demo.cache.AnalyticsCacheListener;
+import com.Community.demo.cache.DoctorCalendarListener;
+import com.Community.demo.cache.DoctorScheduleListener;
+import com.Community.demo.cache.UpcomingIndexListener;
+import com.Community.demo.metrics.EntityCountListener;
+import com.Community.demo.reminders.ReminderListener;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.Builder;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+import org.hibernate.annotations.ColumnDefault;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "appointments")
+@Table(name = "appointments", indexes = {
+        @Index(name = "idx_appointments_scheduled_at", columnList = "scheduled_at"),
+        @Index(name = "idx_appointments_doctor_time", columnList = "doctor_id, scheduled_at"),
+        @Index(name = "idx_appointments_patient_time", columnList = "patient_id, scheduled_at")
+})
+@EntityListeners({EntityCountListener.class, AnalyticsCacheListener.class, UpcomingIndexListener.class,
+        DoctorScheduleListener.class, ReminderListener.class, DoctorCalendarListener.class})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -20,6 +37,12 @@ public class Appointment {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
+    /** Optimistic lock; also bumped by the conditional status updates in AppointmentRepository. */
+    @Version
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private Long version;
+
     private String title;
 
     private LocalDateTime scheduledAt;
@@ -41,4 +64,10 @@ public class Appointment {
     @Column(name = "jitsi_room", length = 150)
     private String jitsiRoom;
 
+    /** Day the row counted towards in analytics when loaded; AnalyticsCacheListener evicts it on a move. */
+    @Transient
+    @JsonIgnore
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private LocalDate analyticsDay;
 }
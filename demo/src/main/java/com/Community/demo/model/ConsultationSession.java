@@ -1,7 +1,17 @@
 package com.Community.demo.model;
 
+import com.Community.demo.cache.AnalyticsCacheListener;
+import com.Community.demo.cache.BusyDoctorsListener;
+import com.Community.demo.cache.DoctorCalendarListener;
+import com.Community.demo.cache.UpcomingIndexListener;
+import com.Community.demo.metrics.EntityCountListener;
+import com.Community.demo.reminders.ReminderListener;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.ColumnDefault;
+
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 
 /**
@@ -18,7 +28,15 @@ import java.time.LocalDateTime;
  *  - getAppointment()/setAppointment(...)
  */
 @Entity
-@Table(name = "consultation_sessions")
+@Table(name = "consultation_sessions", indexes = {
+        @Index(name = "idx_consultations_session_start", columnList = "session_start"),
+        @Index(name = "idx_consultations_doctor_start", columnList = "doctor_id, session_start"),
+        @Index(name = "idx_consultations_patient_start", columnList = "patient_id, session_start"),
+        // open sessions first; StaleSessionReaper range-scans the stale ones only
+        @Index(name = "idx_consultations_open", columnList = "session_end, session_start, created_at")
+})
+@EntityListeners({EntityCountListener.class, AnalyticsCacheListener.class, UpcomingIndexListener.class,
+        ReminderListener.class, DoctorCalendarListener.class, BusyDoctorsListener.class})
 @Data                // Lombok: generates getters/setters, toString, equals/hashCode
 @NoArgsConstructor
 @AllArgsConstructor
@@ -29,6 +47,12 @@ public class ConsultationSession {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
+    /** Optimistic lock; also bumped by the start/end updates in ConsultationRepository. */
+    @Version
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private Long version;
+
     private String topic;
 
     /**
@@ -42,6 +66,10 @@ public class ConsultationSession {
     private LocalDateTime sessionStart;
     private LocalDateTime sessionEnd;
 
+    /** Set on insert; lets the reaper age out sessions that were never started. */
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+
     @Column(length = 2000)
     private String notes;
 
@@ -65,4 +93,15 @@ public class ConsultationSession {
     @Column(name = "jitsi_room", length = 150)
     private String jitsiRoom;
 
+    /** Day the row counted towards in analytics when loaded; AnalyticsCacheListener evicts it on a move. */
+    @Transient
+    @JsonIgnore
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private LocalDate analyticsDay;
+
+    @PrePersist
+    void onCreate() {
+        if (createdAt == null) createdAt = LocalDateTime.now();
+    }
 }
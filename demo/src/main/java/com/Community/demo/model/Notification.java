@@ -1,10 +1,17 @@
 package com.Community.demo.model;
 
+import com.Community.demo.metrics.EntityCountListener;
 import jakarta.persistence.*;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "notifications")
+@Table(name = "notifications", indexes = {
+        // the feed: one range scan from a (created_at, id) cursor back in time
+        @Index(name = "idx_notifications_user_created", columnList = "user_id, created_at, id"),
+        // unread-only feed, unread counts and mark-all-read touch only the unread rows
+        @Index(name = "idx_notifications_user_unread", columnList = "user_id, is_read, created_at, id")
+})
+@EntityListeners(EntityCountListener.class)
 public class Notification {
 
     @Id
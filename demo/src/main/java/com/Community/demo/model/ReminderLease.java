@@ -0,0 +1,32 @@
+package com.Community.demo.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Claim on one reminder (see Reminder.leaseKey). The primary key makes the first node to insert
+ * the row the only one that sends the reminder; rows are purged after a few days.
+ */
+@Entity
+@Table(name = "reminder_leases", indexes = {
+        @Index(name = "idx_reminder_leases_created_at", columnList = "created_at")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReminderLease {
+
+    @Id
+    @Column(name = "reminder_key", length = 100)
+    private String reminderKey;
+
+    @Column(nullable = false, length = 36)
+    private String owner;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+}
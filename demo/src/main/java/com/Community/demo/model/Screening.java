@@ -1,11 +1,16 @@
 // src/main/java/com/Community/demo/model/Screening.java
 package com.Community.demo.model;
 
+import com.Community.demo.cache.AnalyticsCacheListener;
+import com.Community.demo.metrics.EntityCountListener;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.*;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 
-@Entity @Table(name="screenings")
+@Entity @Table(name="screenings", indexes = @Index(name="idx_screenings_taken_at", columnList="taken_at"))
+@EntityListeners({EntityCountListener.class, AnalyticsCacheListener.class})
 @Data @NoArgsConstructor @AllArgsConstructor @Builder
 public class Screening {
     @Id @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -24,4 +29,11 @@ public class Screening {
     private Double bmi;
 
     private LocalDateTime takenAt;
+
+    /** Day the row counted towards in analytics when loaded; AnalyticsCacheListener evicts it on a move. */
+    @Transient
+    @JsonIgnore
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private LocalDate analyticsDay;
 }
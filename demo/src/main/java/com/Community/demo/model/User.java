@@ -1,5 +1,7 @@
 package com.Community.demo.model;
 
+import com.Community.demo.cache.RoleDirectoryListener;
+import com.Community.demo.metrics.EntityCountListener;
 import com.fasterxml.jackson.annotation.JsonProperty;
 
 import jakarta.persistence.*;
@@ -7,6 +9,7 @@ import lombok.*;
 import java.util.Set;
 @Entity
 @Table(name = "users")
+@EntityListeners({EntityCountListener.class, RoleDirectoryListener.class})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -33,11 +36,15 @@ public class User {
     private String password;
 
     @ElementCollection(fetch = FetchType.EAGER)
-    @CollectionTable(name = "user_roles", joinColumns = @JoinColumn(name = "user_id"))
+    @CollectionTable(name = "user_roles", joinColumns = @JoinColumn(name = "user_id"),
+            indexes = @Index(name = "idx_user_roles_role_user", columnList = "roles, user_id"))
     private Set<String> roles = Set.of("ROLE_USER");
 
     // com.Community.demo.model.User
 // add field (DDL auto=update will add column)
     private String preferredLanguage; // "en" or "bn"
 
+    // doctors only, e.g. "Cardiology"; the waiting room queues patients by it
+    private String specialty;
+
 }
\ No newline at end of file
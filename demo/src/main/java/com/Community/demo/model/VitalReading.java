@@ -1,11 +1,13 @@
 package com.Community.demo.model;
 
+import com.Community.demo.metrics.EntityCountListener;
 import jakarta.persistence.*;
 import lombok.*;
 import java.time.LocalDateTime;
 
 @Entity
 @Table(name = "vital_readings")
+@EntityListeners(EntityCountListener.class)
 // @Data provides getters/setters automatically based on field names
 @Data @NoArgsConstructor @AllArgsConstructor @Builder
 public class VitalReading {
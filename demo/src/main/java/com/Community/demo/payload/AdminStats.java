@@ -4,6 +4,10 @@ public class AdminStats {
     private int userCount;
     private int appointmentCount;
     private int screeningCount;
+    private int vitalCount;
+    private int consultationCount;
+    private int activeSessionCount;
+    private int unreadNotificationCount;
 
     public AdminStats() {}
 
@@ -30,4 +34,36 @@ public class AdminStats {
     public void setScreeningCount(int screeningCount) {
         this.screeningCount = screeningCount;
     }
+
+    public int getVitalCount() {
+        return vitalCount;
+    }
+
+    public void setVitalCount(int vitalCount) {
+        this.vitalCount = vitalCount;
+    }
+
+    public int getConsultationCount() {
+        return consultationCount;
+    }
+
+    public void setConsultationCount(int consultationCount) {
+        this.consultationCount = consultationCount;
+    }
+
+    public int getActiveSessionCount() {
+        return activeSessionCount;
+    }
+
+    public void setActiveSessionCount(int activeSessionCount) {
+        this.activeSessionCount = activeSessionCount;
+    }
+
+    public int getUnreadNotificationCount() {
+        return unreadNotificationCount;
+    }
+
+    public void setUnreadNotificationCount(int unreadNotificationCount) {
+        this.unreadNotificationCount = unreadNotificationCount;
+    }
 }
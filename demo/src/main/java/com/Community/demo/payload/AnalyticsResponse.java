@@ -0,0 +1,20 @@
+package com.Community.demo.payload;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Time-bucketed histograms for the admin analytics dashboard.
+ * Each bucket starts on {@code start} (a day, or the Monday of an ISO week).
+ */
+public record AnalyticsResponse(
+        String granularity,
+        LocalDate from,
+        LocalDate to,
+        List<Bucket> appointmentsByStatus,
+        List<Bucket> consultationsByMode,
+        List<Bucket> screenings
+) {
+    public record Bucket(LocalDate start, Map<String, Long> counts, long total) {}
+}
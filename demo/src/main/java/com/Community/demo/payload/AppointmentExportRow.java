@@ -0,0 +1,16 @@
+package com.Community.demo.payload;
+
+import java.time.LocalDateTime;
+
+/**
+ * Flat projection of the six columns written by the appointments CSV export.
+ * Built directly by the JPQL constructor expression, so no Appointment/User graph is loaded.
+ */
+public record AppointmentExportRow(
+        Long id,
+        String title,
+        LocalDateTime scheduledAt,
+        String status,
+        Long patientId,
+        Long doctorId
+) {}
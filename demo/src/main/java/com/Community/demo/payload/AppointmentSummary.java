@@ -0,0 +1,15 @@
+package com.Community.demo.payload;
+
+import java.time.LocalDateTime;
+
+/** Admin appointment listing row: scalar columns plus the two participant names. */
+public record AppointmentSummary(
+        Long id,
+        String title,
+        LocalDateTime scheduledAt,
+        String status,
+        Long patientId,
+        String patientName,
+        Long doctorId,
+        String doctorName
+) {}
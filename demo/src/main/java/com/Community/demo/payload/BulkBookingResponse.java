@@ -0,0 +1,10 @@
+package com.Community.demo.payload;
+
+import java.util.List;
+
+/** Outcome of POST /api/appointments/bulk; {@code results} is in request order. */
+public record BulkBookingResponse(int created, int rejected, List<Item> results) {
+
+    /** {@code appointmentId} is set for created items, {@code error} for rejected ones. */
+    public record Item(int index, Long appointmentId, String error) {}
+}
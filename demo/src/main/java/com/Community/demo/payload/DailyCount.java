@@ -0,0 +1,6 @@
+package com.Community.demo.payload;
+
+import java.time.LocalDate;
+
+/** One GROUP BY row of the analytics queries: rows on {@code day} with the given key (status, mode...). */
+public record DailyCount(LocalDate day, String key, Long count) {}
@@ -0,0 +1,19 @@
+package com.Community.demo.payload;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Free/busy slots for one doctor over [from, to] (both inclusive).
+ * {@code busy} is 24 hex digits per day: 96 slots of {@code slotMinutes} from midnight, slot 0 in
+ * the most significant bit of the first digit; a set bit means the doctor is booked.
+ */
+public record DoctorCalendarResponse(
+        Long doctorId,
+        LocalDate from,
+        LocalDate to,
+        int slotMinutes,
+        List<Day> days
+) {
+    public record Day(LocalDate date, String busy) {}
+}
@@ -0,0 +1,4 @@
+package com.Community.demo.payload;
+
+/** The serialized public doctor list (a JSON array of DoctorDTO) and its strong ETag. */
+public record DoctorDirectory(byte[] json, String etag) {}
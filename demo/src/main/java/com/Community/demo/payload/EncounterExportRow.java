@@ -0,0 +1,12 @@
+package com.Community.demo.payload;
+
+import java.time.LocalDateTime;
+
+/** Flat projection of an encounter for the export bundle; user references are FK scalars. */
+public record EncounterExportRow(
+        Long id,
+        Long patientId,
+        Long doctorId,
+        LocalDateTime createdAt,
+        String notes
+) {}
@@ -0,0 +1,20 @@
+package com.Community.demo.payload;
+
+import java.util.List;
+import java.util.function.ToLongFunction;
+
+/**
+ * One page of an id-ordered listing. Pass {@code nextAfter} back as {@code ?after=} to get the
+ * next page; it is null on the last page.
+ */
+public record KeysetPage<T>(List<T> items, Long nextAfter) {
+
+    /** Builds a page from a query run with limit + 1 rows; the extra row only signals more data. */
+    public static <T> KeysetPage<T> of(List<T> rows, int limit, ToLongFunction<T> idOf) {
+        if (rows.size() <= limit) {
+            return new KeysetPage<>(rows, null);
+        }
+        List<T> items = rows.subList(0, limit);
+        return new KeysetPage<>(List.copyOf(items), idOf.applyAsLong(items.get(limit - 1)));
+    }
+}
@@ -0,0 +1,18 @@
+package com.Community.demo.payload;
+
+/**
+ * Percentiles of one consultation metric over the rolling window. dimension is "all",
+ * "mode:ONLINE" or "doctor:42"; values are in unit.
+ */
+public record LatencySummary(
+        String metric,
+        String unit,
+        String dimension,
+        long count,
+        long p50,
+        long p90,
+        long p99,
+        long max,
+        double mean,
+        long windowSeconds
+) {}
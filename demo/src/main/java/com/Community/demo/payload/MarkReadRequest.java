@@ -0,0 +1,15 @@
+package com.Community.demo.payload;
+
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class MarkReadRequest {
+    // optional; must be the signed-in user
+    private Long userId;
+    // either the notifications to mark ...
+    private List<Long> ids;
+    // ... or every notification of the user up to and including this id
+    private Long upToId;
+}
@@ -0,0 +1,4 @@
+package com.Community.demo.payload;
+
+/** updated counts only notifications that were still unread. */
+public record MarkReadResponse(Long userId, int updated) {}
@@ -0,0 +1,22 @@
+package com.Community.demo.payload;
+
+import com.Community.demo.model.Notification;
+
+import java.util.List;
+
+/**
+ * One page of a user's notifications, newest first. Pass {@code nextBefore} ("createdAt,id" of
+ * the last item) back as {@code ?before=} to get older ones; it is null on the last page.
+ */
+public record NotificationFeedPage(List<Notification> items, String nextBefore) {
+
+    /** Builds a page from a query run with limit + 1 rows; the extra row only signals more data. */
+    public static NotificationFeedPage of(List<Notification> rows, int limit) {
+        if (rows.size() <= limit) {
+            return new NotificationFeedPage(rows, null);
+        }
+        List<Notification> items = List.copyOf(rows.subList(0, limit));
+        Notification last = items.get(limit - 1);
+        return new NotificationFeedPage(items, last.getCreatedAt() + "," + last.getId());
+    }
+}
@@ -0,0 +1,15 @@
+package com.Community.demo.payload;
+
+import java.time.LocalDateTime;
+
+/** Flat projection of a prescription for the export bundle; user references are FK scalars. */
+public record PrescriptionExportRow(
+        Long id,
+        Long patientId,
+        Long doctorId,
+        String medication,
+        String dose,
+        String frequency,
+        Integer days,
+        LocalDateTime createdAt
+) {}
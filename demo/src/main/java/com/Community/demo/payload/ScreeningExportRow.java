@@ -0,0 +1,20 @@
+package com.Community.demo.payload;
+
+import java.time.LocalDateTime;
+
+/**
+ * Flat projection of the screenings CSV export. user_id is read as a scalar from the FK column,
+ * so the LAZY Screening.user association is never touched.
+ */
+public record ScreeningExportRow(
+        Long id,
+        Long userId,
+        LocalDateTime takenAt,
+        Integer systolic,
+        Integer diastolic,
+        Double glucose,
+        String glucoseType,
+        Double heightCm,
+        Double weightKg,
+        Double bmi
+) {}
@@ -0,0 +1,6 @@
+package com.Community.demo.payload;
+
+import java.time.LocalDateTime;
+
+/** Start and end of one consultation session, for the doctor calendar. */
+public record SessionInterval(Long id, LocalDateTime sessionStart, LocalDateTime sessionEnd) {}
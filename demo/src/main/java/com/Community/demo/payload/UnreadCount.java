@@ -0,0 +1,3 @@
+package com.Community.demo.payload;
+
+public record UnreadCount(Long userId, long unread) {}
@@ -0,0 +1,13 @@
+package com.Community.demo.payload;
+
+import java.time.LocalDateTime;
+
+/** Upcoming-appointments row; also the value held by the in-memory upcoming index. */
+public record UpcomingAppointment(
+        Long id,
+        String title,
+        LocalDateTime scheduledAt,
+        String status,
+        Long patientId,
+        Long doctorId
+) {}
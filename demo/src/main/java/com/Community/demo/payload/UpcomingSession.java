@@ -0,0 +1,13 @@
+package com.Community.demo.payload;
+
+import java.time.LocalDateTime;
+
+/** Upcoming consultation row; also the value held by the in-memory upcoming index. */
+public record UpcomingSession(
+        Long id,
+        String topic,
+        LocalDateTime sessionStart,
+        String mode,
+        Long patientId,
+        Long doctorId
+) {}
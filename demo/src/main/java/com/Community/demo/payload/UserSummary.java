@@ -0,0 +1,22 @@
+package com.Community.demo.payload;
+
+import java.util.Set;
+
+/** Admin user listing row; no password hash, roles loaded per page. */
+public record UserSummary(
+        Long id,
+        String name,
+        String email,
+        String phone,
+        String preferredLanguage,
+        Set<String> roles
+) {
+    /** JPQL constructor-expression form; roles are attached afterwards with {@link #withRoles}. */
+    public UserSummary(Long id, String name, String email, String phone, String preferredLanguage) {
+        this(id, name, email, phone, preferredLanguage, Set.of());
+    }
+
+    public UserSummary withRoles(Set<String> roles) {
+        return new UserSummary(id, name, email, phone, preferredLanguage, roles);
+    }
+}
@@ -0,0 +1,18 @@
+package com.Community.demo.payload;
+
+import java.time.LocalDateTime;
+
+/** Flat projection of a vital reading for the export bundle; user references are FK scalars. */
+public record VitalExportRow(
+        Long id,
+        Long patientId,
+        Long recordedById,
+        LocalDateTime measuredAt,
+        Integer systolic,
+        Integer diastolic,
+        Integer glucoseMgdl,
+        String glucoseType,
+        Double heightCm,
+        Double weightKg,
+        Double bmi
+) {}
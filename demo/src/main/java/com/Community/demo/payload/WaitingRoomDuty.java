@@ -0,0 +1,9 @@
+package com.Community.demo.payload;
+
+/** A doctor's waiting room duty; matchedSessionId is set when checking in matched a patient at once. */
+public record WaitingRoomDuty(
+        Long doctorId,
+        String specialty,
+        boolean onDuty,
+        Long matchedSessionId
+) {}
@@ -0,0 +1,12 @@
+package com.Community.demo.payload;
+
+/** Per-specialty waiting room gauges; wait times are in milliseconds and cover matched tickets. */
+public record WaitingRoomStats(
+        String specialty,
+        int waiting,
+        int idleDoctors,
+        long matched,
+        long avgWaitMs,
+        long maxWaitMs,
+        long oldestWaitingMs
+) {}
@@ -0,0 +1,28 @@
+package com.Community.demo.payload;
+
+import com.Community.demo.waitingroom.WaitingTicket;
+
+import java.time.Instant;
+
+/**
+ * A patient's waiting room ticket. Once status is MATCHED, sessionId / doctorId / jitsiRoom
+ * point at the consultation created for them.
+ */
+public record WaitingTicketResponse(
+        long ticketId,
+        Long patientId,
+        String specialty,
+        String status,
+        Instant enqueuedAt,
+        long waitedSeconds,
+        int waitingInLine,
+        Long doctorId,
+        Long sessionId,
+        String jitsiRoom
+) {
+    public static WaitingTicketResponse from(WaitingTicket t, int waitingInLine) {
+        return new WaitingTicketResponse(t.getId(), t.getPatientId(), t.getSpecialty(), t.getState().name(),
+                t.getEnqueuedAt(), t.waitedNanos(System.nanoTime()) / 1_000_000_000L, waitingInLine,
+                t.getDoctorId(), t.getSessionId(), t.getJitsiRoom());
+    }
+}
@@ -0,0 +1,20 @@
+package com.Community.demo.reminders;
+
+import java.time.LocalDateTime;
+
+/**
+ * One reminder for one appointment or consultation: {@code leadMinutes} before {@code at}.
+ * {@link #leaseKey()} identifies it across nodes.
+ */
+public record Reminder(Kind kind, Long entityId, Long patientId, String label, LocalDateTime at, int leadMinutes) {
+
+    public enum Kind { APPOINTMENT, CONSULTATION }
+
+    public LocalDateTime dueAt() {
+        return at.minusMinutes(leadMinutes);
+    }
+
+    public String leaseKey() {
+        return kind.name().charAt(0) + ":" + entityId + ":" + at + ":" + leadMinutes;
+    }
+}
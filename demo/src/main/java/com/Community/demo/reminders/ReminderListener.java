@@ -0,0 +1,54 @@
+package com.Community.demo.reminders;
+
+import com.Community.demo.model.Appointment;
+import com.Community.demo.model.ConsultationSession;
+import com.Community.demo.reminders.Reminder.Kind;
+import com.Community.demo.util.AfterCommit;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+
+import java.time.LocalDateTime;
+
+/** Reschedules or cancels reminders after an appointment or session write commits. */
+public class ReminderListener {
+
+    private final ReminderScheduler scheduler;
+
+    public ReminderListener(ReminderScheduler scheduler) {
+        this.scheduler = scheduler;
+    }
+
+    @PostPersist
+    @PostUpdate
+    public void onSave(Object entity) {
+        if (entity instanceof Appointment a) {
+            Long patientId = a.getPatient() == null ? null : a.getPatient().getId();
+            LocalDateTime at = isCancelled(a.getStatus()) ? null : a.getScheduledAt();
+            Long id = a.getId();
+            String title = a.getTitle();
+            AfterCommit.run(() -> scheduler.changed(Kind.APPOINTMENT, id, patientId, title, at));
+        } else if (entity instanceof ConsultationSession s) {
+            Long patientId = s.getPatient() == null ? null : s.getPatient().getId();
+            LocalDateTime at = s.getSessionStart();
+            Long id = s.getId();
+            String topic = s.getTopic();
+            AfterCommit.run(() -> scheduler.changed(Kind.CONSULTATION, id, patientId, topic, at));
+        }
+    }
+
+    @PostRemove
+    public void onRemove(Object entity) {
+        if (entity instanceof Appointment a) {
+            Long id = a.getId();
+            AfterCommit.run(() -> scheduler.cancel(Kind.APPOINTMENT, id));
+        } else if (entity instanceof ConsultationSession s) {
+            Long id = s.getId();
+            AfterCommit.run(() -> scheduler.cancel(Kind.CONSULTATION, id));
+        }
+    }
+
+    private static boolean isCancelled(String status) {
+        return status != null && status.toUpperCase().startsWith("CANCEL");
+    }
+}
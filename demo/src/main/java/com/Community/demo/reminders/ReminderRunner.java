@@ -0,0 +1,155 @@
+package com.Community.demo.reminders;
+
+import com.Community.demo.model.Notification;
+import com.Community.demo.payload.UpcomingAppointment;
+import com.Community.demo.payload.UpcomingSession;
+import com.Community.demo.reminders.Reminder.Kind;
+import com.Community.demo.repository.AppointmentRepository;
+import com.Community.demo.repository.ConsultationRepository;
+import com.Community.demo.repository.ReminderLeaseRepository;
+import com.Community.demo.services.NotificationService;
+import com.Community.demo.services.NotificationService.Delivery;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Drives ReminderScheduler: loads the next reminders.lookahead-hours of appointments and
+ * sessions at startup and on every refill, ticks the wheel, and sends due reminders in one batch.
+ *
+ * Every node runs its own wheel. Before sending, a node claims the batch in reminder_leases with
+ * INSERT IGNORE and only notifies for the keys it won, so each reminder goes out once.
+ */
+@Component
+public class ReminderRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(ReminderRunner.class);
+
+    private final ReminderScheduler scheduler;
+    private final AppointmentRepository appointmentRepository;
+    private final ConsultationRepository consultationRepository;
+    private final ReminderLeaseRepository leaseRepository;
+    private final NotificationService notificationService;
+    private final TransactionTemplate tx;
+    private final String nodeId = UUID.randomUUID().toString();
+
+    @Value("${reminders.enabled:true}")
+    private boolean enabled;
+
+    @Value("${reminders.lookahead-hours:6}")
+    private int lookaheadHours;
+
+    @Value("${reminders.lease-retention-days:3}")
+    private int leaseRetentionDays;
+
+    public ReminderRunner(ReminderScheduler scheduler,
+                          AppointmentRepository appointmentRepository,
+                          ConsultationRepository consultationRepository,
+                          ReminderLeaseRepository leaseRepository,
+                          NotificationService notificationService,
+                          PlatformTransactionManager transactionManager) {
+        this.scheduler = scheduler;
+        this.appointmentRepository = appointmentRepository;
+        this.consultationRepository = consultationRepository;
+        this.leaseRepository = leaseRepository;
+        this.notificationService = notificationService;
+        this.tx = new TransactionTemplate(transactionManager);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled) return;
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime until = now.plusHours(Math.max(1, lookaheadHours));
+        scheduler.start(now, until);
+        load(now, until);
+        log.info("Reminder wheel started, loaded until {}", until);
+    }
+
+    /** Slides the window forward; runs well before the loaded window runs out. */
+    @Scheduled(fixedDelayString = "${reminders.refill-interval-ms:900000}",
+            initialDelayString = "${reminders.refill-interval-ms:900000}")
+    public void refill() {
+        LocalDateTime from = scheduler.loadedUntil();
+        if (!enabled || from == null) return;
+        LocalDateTime until = LocalDateTime.now().plusHours(Math.max(1, lookaheadHours));
+        if (until.isAfter(from)) {
+            load(from, until);
+            scheduler.extendTo(until);
+        }
+        scheduler.prune(LocalDateTime.now());
+        try {
+            Integer purged = tx.execute(status ->
+                    leaseRepository.deleteOlderThan(LocalDateTime.now().minusDays(leaseRetentionDays)));
+            log.debug("Reminder window now until {}, purged {} old leases", until, purged);
+        } catch (Exception ex) {
+            log.warn("Reminder lease purge failed: {}", ex.getMessage());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${reminders.tick-ms:1000}")
+    public void tick() {
+        if (!enabled) return;
+        List<Reminder> due = scheduler.advance(LocalDateTime.now());
+        if (due.isEmpty()) return;
+        try {
+            Integer sent = tx.execute(status -> {
+                Set<String> won = leaseRepository.acquire(due.stream().map(Reminder::leaseKey).toList(), nodeId);
+                List<Notification> batch = due.stream()
+                        .filter(r -> won.contains(r.leaseKey()))
+                        .map(ReminderRunner::toNotification)
+                        .toList();
+                notificationService.send(batch, Delivery.BEFORE_COMMIT);
+                return batch.size();
+            });
+            log.debug("Reminders due={} sent={}", due.size(), sent);
+        } catch (Exception ex) {
+            log.warn("Sending {} reminders failed, retrying: {}", due.size(), ex.getMessage());
+            scheduler.retry(due, 30_000);
+        }
+    }
+
+    /** Queues reminders due in (from, until]; the start times that can produce them are read once. */
+    private void load(LocalDateTime from, LocalDateTime until) {
+        LocalDateTime firstStart = from.plusMinutes(scheduler.minLeadMinutes());
+        LocalDateTime lastStart = until.plusMinutes(scheduler.maxLeadMinutes());
+        try {
+            for (UpcomingAppointment a : appointmentRepository.findUpcoming(firstStart, lastStart, null, null, Limit.unlimited())) {
+                if (a.status() != null && a.status().toUpperCase().startsWith("CANCEL")) continue;
+                scheduler.schedule(Kind.APPOINTMENT, a.id(), a.patientId(), a.title(), a.scheduledAt(), from, until);
+            }
+            for (UpcomingSession s : consultationRepository.findUpcoming(firstStart, lastStart, null, null, Limit.unlimited())) {
+                scheduler.schedule(Kind.CONSULTATION, s.id(), s.patientId(), s.topic(), s.sessionStart(), from, until);
+            }
+        } catch (Exception ex) {
+            log.warn("Loading reminders for ({}, {}] failed: {}", from, until, ex.getMessage());
+        }
+    }
+
+    private static Notification toNotification(Reminder r) {
+        String what = r.kind() == Kind.APPOINTMENT
+                ? "Your appointment '" + (r.label() == null ? "Appointment" : r.label()) + "'"
+                : "Your consultation" + (r.label() == null ? "" : " '" + r.label() + "'");
+        return new Notification(r.patientId(), "Reminder",
+                what + " starts in " + describe(r.leadMinutes()) + " (at " + r.at() + ").");
+    }
+
+    private static String describe(int minutes) {
+        if (minutes == 1) return "1 minute";
+        if (minutes % 60 != 0) return minutes + " minutes";
+        int hours = minutes / 60;
+        return hours == 1 ? "1 hour" : hours + " hours";
+    }
+}
@@ -0,0 +1,164 @@
+package com.Community.demo.reminders;
+
+import com.Community.demo.reminders.Reminder.Kind;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Holds the reminder timing wheel. Only reminders due within the loaded window
+ * (now, loadedUntil] are in the wheel, so memory follows the look-ahead, not the table size;
+ * ReminderRunner pushes loadedUntil forward and feeds in the next slice from the database.
+ *
+ * Updates and deletes are not removed from the wheel. {@code current} keeps, per entity, what
+ * its queued reminders were built from (start, patient, label) under a generation number; a
+ * write that changes any of them queues the reminders again under a new generation, and a
+ * fired reminder of an older generation is dropped. A write that changes none of them queues
+ * nothing, so each reminder fires once.
+ *
+ * Holds no repository: ReminderRunner reads each slice from the database and feeds it in
+ * through {@link #schedule}.
+ */
+@Component
+public class ReminderScheduler {
+
+    private record EntityKey(Kind kind, Long id) {}
+
+    private record Scheduled(LocalDateTime at, Long patientId, String label, long generation) {
+        boolean sameAs(LocalDateTime at, Long patientId, String label) {
+            return this.at.equals(at) && Objects.equals(this.patientId, patientId) && Objects.equals(this.label, label);
+        }
+    }
+
+    private record Queued(Reminder reminder, long generation) {}
+
+    private final int[] leadMinutes;
+    private final long tickMs;
+    private final ZoneId zone = ZoneId.systemDefault();
+    private final Map<EntityKey, Scheduled> current = new HashMap<>();
+    private TimingWheel<Queued> wheel;
+    private LocalDateTime loadedUntil;
+    private long generations;
+
+    public ReminderScheduler(@Value("${reminders.leads-minutes:1440,60}") int[] leadMinutes,
+                             @Value("${reminders.tick-ms:1000}") long tickMs) {
+        this.leadMinutes = Arrays.stream(leadMinutes).filter(m -> m > 0).sorted().toArray();
+        this.tickMs = Math.max(10, tickMs);
+    }
+
+    public int maxLeadMinutes() {
+        return leadMinutes.length == 0 ? 0 : leadMinutes[leadMinutes.length - 1];
+    }
+
+    public int minLeadMinutes() {
+        return leadMinutes.length == 0 ? 0 : leadMinutes[0];
+    }
+
+    /** Null until ReminderRunner has loaded the first window. */
+    public synchronized LocalDateTime loadedUntil() {
+        return loadedUntil;
+    }
+
+    /**
+     * Records the entity's start time and queues its reminders due in (from, to], a range not
+     * queued for it before. A null {@code at} or patient means the entity should not be reminded
+     * about.
+     */
+    public synchronized void schedule(Kind kind, Long id, Long patientId, String label, LocalDateTime start,
+                                      LocalDateTime from, LocalDateTime to) {
+        EntityKey key = new EntityKey(kind, id);
+        LocalDateTime at = seconds(start);
+        // the earliest reminder (longest lead) decides whether anything is due by the window end
+        if (wheel == null || at == null || patientId == null || !at.isAfter(from)
+                || at.minusMinutes(maxLeadMinutes()).isAfter(to)) {
+            current.remove(key); // nothing due in this window; a later slice loads it again
+            return;
+        }
+        // the next slice of an unchanged entity keeps its generation, so earlier slices still fire
+        Scheduled previous = current.get(key);
+        Scheduled entry = previous != null && previous.sameAs(at, patientId, label)
+                ? previous : new Scheduled(at, patientId, label, ++generations);
+        current.put(key, entry);
+        for (int lead : leadMinutes) {
+            Reminder r = new Reminder(kind, id, patientId, label, at, lead);
+            LocalDateTime due = r.dueAt();
+            if (due.isAfter(from) && !due.isAfter(to)) {
+                wheel.add(toMillis(due), new Queued(r, entry.generation()));
+            }
+        }
+    }
+
+    /**
+     * Entity write seen after commit: reschedule within the already loaded window, unless the
+     * write left everything the reminders carry unchanged (they are queued already).
+     */
+    public synchronized void changed(Kind kind, Long id, Long patientId, String label, LocalDateTime at) {
+        if (wheel == null) return; // the initial load will read it from the database
+        Scheduled previous = current.get(new EntityKey(kind, id));
+        LocalDateTime start = seconds(at);
+        if (previous != null && start != null && previous.sameAs(start, patientId, label)) return;
+        schedule(kind, id, patientId, label, at, LocalDateTime.now(), loadedUntil);
+    }
+
+    public synchronized void cancel(Kind kind, Long id) {
+        current.remove(new EntityKey(kind, id));
+    }
+
+    /** Starts the wheel; everything due up to {@code until} is then fed via {@link #schedule}. */
+    public synchronized void start(LocalDateTime now, LocalDateTime until) {
+        wheel = new TimingWheel<>(tickMs, 60, toMillis(now));
+        loadedUntil = until;
+    }
+
+    public synchronized void extendTo(LocalDateTime until) {
+        if (loadedUntil == null || until.isAfter(loadedUntil)) loadedUntil = until;
+    }
+
+    /** Advances the wheel and returns the reminders that are due and still current. */
+    public synchronized List<Reminder> advance(LocalDateTime now) {
+        List<Reminder> due = new ArrayList<>();
+        if (wheel == null) return due;
+        wheel.advanceTo(toMillis(now), q -> {
+            Reminder r = q.reminder();
+            Scheduled entry = current.get(new EntityKey(r.kind(), r.entityId()));
+            if (entry != null && entry.generation() == q.generation()) due.add(r);
+        });
+        return due;
+    }
+
+    /** Puts reminders back for another attempt {@code delayMs} from now (e.g. after a DB error). */
+    public synchronized void retry(List<Reminder> reminders, long delayMs) {
+        if (wheel == null) return;
+        long at = System.currentTimeMillis() + delayMs;
+        for (Reminder r : reminders) {
+            Scheduled entry = current.get(new EntityKey(r.kind(), r.entityId()));
+            // rescheduled meanwhile: the new generation has its own reminders
+            if (entry != null && entry.sameAs(r.at(), r.patientId(), r.label())) {
+                wheel.add(at, new Queued(r, entry.generation()));
+            }
+        }
+    }
+
+    /** Forgets entities whose start time has passed; their reminders have all fired by then. */
+    public synchronized void prune(LocalDateTime now) {
+        current.values().removeIf(entry -> !entry.at().isAfter(now));
+    }
+
+    // whole seconds: values read back from the DB and values seen by the listener must match
+    private static LocalDateTime seconds(LocalDateTime t) {
+        return t == null ? null : t.truncatedTo(ChronoUnit.SECONDS);
+    }
+
+    private long toMillis(LocalDateTime t) {
+        return t.atZone(zone).toInstant().toEpochMilli();
+    }
+}
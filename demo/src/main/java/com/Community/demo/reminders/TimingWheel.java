@@ -0,0 +1,82 @@
+package com.Community.demo.reminders;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Hierarchical timing wheel. Level 0 has {@code wheelSize} buckets of {@code tickMs}; each
+ * overflow level's tick is the full span of the level below, created on demand, so a deadline
+ * hours away costs one bucket insert and is cascaded down only as its time approaches.
+ * An item fires when the clock enters its tick (up to one tick early).
+ *
+ * Not thread-safe; ReminderScheduler guards it.
+ */
+class TimingWheel<T> {
+
+    private record Timed<T>(long deadline, T item) {}
+
+    private final long tickMs;
+    private final int wheelSize;
+    private final long intervalMs;
+    private final List<List<Timed<T>>> buckets;
+    private long currentTime;
+    private TimingWheel<T> overflow;
+
+    TimingWheel(long tickMs, int wheelSize, long startMs) {
+        this.tickMs = tickMs;
+        this.wheelSize = wheelSize;
+        this.intervalMs = tickMs * wheelSize;
+        this.currentTime = startMs - (startMs % tickMs);
+        this.buckets = new ArrayList<>(wheelSize);
+        for (int i = 0; i < wheelSize; i++) {
+            buckets.add(new ArrayList<>());
+        }
+    }
+
+    /** Schedules the item; returns false if its tick has already started (fire it now). */
+    boolean add(long deadline, T item) {
+        return add(new Timed<>(deadline, item));
+    }
+
+    /** Moves the clock to {@code now}, handing every item whose tick was entered to {@code due}. */
+    void advanceTo(long now, Consumer<T> due) {
+        advance(now, t -> due.accept(t.item()));
+    }
+
+    private boolean add(Timed<T> t) {
+        if (t.deadline() < currentTime + tickMs) {
+            return false;
+        }
+        if (t.deadline() < currentTime + intervalMs) {
+            buckets.get(index(t.deadline())).add(t);
+            return true;
+        }
+        if (overflow == null) {
+            overflow = new TimingWheel<>(intervalMs, wheelSize, currentTime);
+        }
+        return overflow.add(t);
+    }
+
+    private void advance(long now, Consumer<Timed<T>> expired) {
+        while (currentTime + tickMs <= now) {
+            currentTime += tickMs;
+            if (overflow != null && currentTime % intervalMs == 0) {
+                // the overflow bucket starting now covers exactly this level's next rotation
+                overflow.advance(currentTime, t -> {
+                    if (!add(t)) expired.accept(t);
+                });
+            }
+            List<Timed<T>> bucket = buckets.get(index(currentTime));
+            if (!bucket.isEmpty()) {
+                List<Timed<T>> fired = new ArrayList<>(bucket);
+                bucket.clear();
+                fired.forEach(expired);
+            }
+        }
+    }
+
+    private int index(long time) {
+        return (int) ((time / tickMs) % wheelSize);
+    }
+}
@@ -0,0 +1,15 @@
+package com.Community.demo.repository;
+
+import com.Community.demo.model.Appointment;
+
+import java.util.List;
+
+/** JDBC batch insert fragment mixed into AppointmentRepository. */
+public interface AppointmentBatchRepository {
+
+    /**
+     * Inserts the appointments in JDBC batches and writes the generated ids back into them.
+     * Bypasses the persistence context, so JPA entity listeners do not run for these rows.
+     */
+    void insertBatch(List<Appointment> appointments);
+}
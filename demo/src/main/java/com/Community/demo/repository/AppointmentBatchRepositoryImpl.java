@@ -0,0 +1,75 @@
+package com.Community.demo.repository;
+
+import com.Community.demo.model.Appointment;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Appointments keep IDENTITY ids, which Hibernate cannot batch, so bulk bookings go through
+ * JdbcTemplate instead: one multi-row statement per batch-size rows, with the ids read back
+ * from the generated keys (Connector/J returns them for rewritten batches too).
+ */
+public class AppointmentBatchRepositoryImpl implements AppointmentBatchRepository {
+
+    private static final String INSERT_SQL =
+            "insert into appointments (version, title, scheduled_at, notes, status, patient_id, doctor_id) " +
+            "values (0, ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${appointments.bulk.batch-size:500}")
+    private int batchSize;
+
+    public AppointmentBatchRepositoryImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void insertBatch(List<Appointment> appointments) {
+        int size = Math.max(1, batchSize);
+        for (int from = 0; from < appointments.size(); from += size) {
+            List<Appointment> chunk = appointments.subList(from, Math.min(from + size, appointments.size()));
+            GeneratedKeyHolder keys = new GeneratedKeyHolder();
+            jdbcTemplate.batchUpdate(
+                    con -> con.prepareStatement(INSERT_SQL, Statement.RETURN_GENERATED_KEYS),
+                    new BatchPreparedStatementSetter() {
+                        @Override
+                        public void setValues(PreparedStatement ps, int i) throws SQLException {
+                            Appointment a = chunk.get(i);
+                            ps.setString(1, a.getTitle());
+                            ps.setTimestamp(2, a.getScheduledAt() == null ? null : Timestamp.valueOf(a.getScheduledAt()));
+                            ps.setString(3, a.getNotes());
+                            ps.setString(4, a.getStatus());
+                            setId(ps, 5, a.getPatient() == null ? null : a.getPatient().getId());
+                            setId(ps, 6, a.getDoctor() == null ? null : a.getDoctor().getId());
+                        }
+
+                        @Override
+                        public int getBatchSize() {
+                            return chunk.size();
+                        }
+                    },
+                    keys);
+            List<Map<String, Object>> rows = keys.getKeyList();
+            for (int i = 0; i < chunk.size() && i < rows.size(); i++) {
+                chunk.get(i).setId(((Number) rows.get(i).values().iterator().next()).longValue());
+                chunk.get(i).setVersion(0L);
+            }
+        }
+    }
+
+    private static void setId(PreparedStatement ps, int index, Long id) throws SQLException {
+        if (id == null) ps.setNull(index, Types.BIGINT);
+        else ps.setLong(index, id);
+    }
+}
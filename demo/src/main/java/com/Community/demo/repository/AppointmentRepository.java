@@ -2,14 +2,27 @@ package com.Community.demo.repository;
 
 import com.Community.demo.model.Appointment;
 import com.Community.demo.model.User;
+import com.Community.demo.payload.AppointmentExportRow;
+import com.Community.demo.payload.AppointmentSummary;
+import com.Community.demo.payload.DailyCount;
+import com.Community.demo.payload.UpcomingAppointment;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
-public interface AppointmentRepository extends JpaRepository<Appointment, Long> {
+public interface AppointmentRepository extends JpaRepository<Appointment, Long>, AppointmentBatchRepository {
 
     List<Appointment> findByDoctor(User doctor);
 
@@ -24,4 +37,97 @@ public interface AppointmentRepository extends JpaRepository<Appointment, Long>
 
     List<Appointment> findByDoctorAndScheduledAtBefore(
             User doctor, LocalDateTime now);
-}
\ No newline at end of file
+
+    /**
+     * Forward-only cursor over the CSV export columns. The MIN_VALUE fetch size makes
+     * Connector/J stream rows one at a time instead of buffering the whole result set.
+     * Must be consumed inside a (read-only) transaction and closed by the caller.
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + Integer.MIN_VALUE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select new com.Community.demo.payload.AppointmentExportRow(" +
+            "a.id, a.title, a.scheduledAt, a.status, a.patient.id, a.doctor.id) " +
+            "from Appointment a order by a.id")
+    Stream<AppointmentExportRow> streamExportRows();
+
+    /** Admin listing page after {@code afterId}; every filter is optional (null = no filter). */
+    @Query("select new com.Community.demo.payload.AppointmentSummary(" +
+            "a.id, a.title, a.scheduledAt, a.status, p.id, p.name, d.id, d.name) " +
+            "from Appointment a left join a.patient p left join a.doctor d " +
+            "where a.id > :afterId " +
+            "and (:status is null or a.status = :status) " +
+            "and (:from is null or a.scheduledAt >= :from) " +
+            "and (:to is null or a.scheduledAt < :to) " +
+            "order by a.id")
+    List<AppointmentSummary> findSummaryPage(@Param("afterId") long afterId,
+                                             @Param("status") String status,
+                                             @Param("from") LocalDateTime from,
+                                             @Param("to") LocalDateTime to,
+                                             Limit limit);
+
+    /**
+     * Appointments with from < scheduledAt <= until (until null = no horizon) in time order.
+     * A doctor or patient filter walks idx_appointments_doctor_time / _patient_time, otherwise
+     * idx_appointments_scheduled_at; either way only the upcoming window is read.
+     */
+    @Query("select new com.Community.demo.payload.UpcomingAppointment(" +
+            "a.id, a.title, a.scheduledAt, a.status, a.patient.id, a.doctor.id) " +
+            "from Appointment a where a.scheduledAt > :from " +
+            "and (:until is null or a.scheduledAt <= :until) " +
+            "and (:doctorId is null or a.doctor.id = :doctorId) " +
+            "and (:patientId is null or a.patient.id = :patientId) " +
+            "order by a.scheduledAt, a.id")
+    List<UpcomingAppointment> findUpcoming(@Param("from") LocalDateTime from,
+                                           @Param("until") LocalDateTime until,
+                                           @Param("doctorId") Long doctorId,
+                                           @Param("patientId") Long patientId,
+                                           Limit limit);
+
+    /** Appointments per scheduled day and status in [from, to); served by idx_appointments_scheduled_at. */
+    @Query("select new com.Community.demo.payload.DailyCount(cast(a.scheduledAt as LocalDate), a.status, count(a)) " +
+            "from Appointment a where a.scheduledAt >= :from and a.scheduledAt < :to " +
+            "group by cast(a.scheduledAt as LocalDate), a.status")
+    List<DailyCount> countPerDayByStatus(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    /** Single-row projection used to apply listener effects after a conditional update. */
+    @Query("select new com.Community.demo.payload.UpcomingAppointment(" +
+            "a.id, a.title, a.scheduledAt, a.status, a.patient.id, a.doctor.id) " +
+            "from Appointment a where a.id = :id")
+    UpcomingAppointment findRow(@Param("id") Long id);
+
+    @Query("select new com.Community.demo.payload.UpcomingAppointment(" +
+            "a.id, a.title, a.scheduledAt, a.status, a.patient.id, a.doctor.id) " +
+            "from Appointment a where a.id in :ids")
+    List<UpcomingAppointment> findRows(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Moves an appointment to {@code to} only if its current status is in {@code from} (null
+     * counts as SCHEDULED). One statement, no prior read; returns 0 if the row is missing or
+     * its status moved on. Bumps the version so stale full updates fail their version check.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Appointment a set a.status = :to, a.version = a.version + 1 " +
+            "where a.id = :id and coalesce(a.status, 'SCHEDULED') in :from")
+    int transitionStatus(@Param("id") Long id,
+                         @Param("from") Collection<String> from,
+                         @Param("to") String to);
+
+    /** {@link #transitionStatus} for the appointment linked to a consultation session. */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Appointment a set a.status = :to, a.version = a.version + 1 " +
+            "where a.id = (select cs.appointment.id from ConsultationSession cs where cs.id = :sessionId) " +
+            "and coalesce(a.status, 'SCHEDULED') in :from")
+    int transitionLinkedStatus(@Param("sessionId") Long sessionId,
+                               @Param("from") Collection<String> from,
+                               @Param("to") String to);
+
+    /** Batch form of {@link #transitionStatus}: moves every listed appointment whose status allows it. */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Appointment a set a.status = :to, a.version = a.version + 1 " +
+            "where a.id in :ids and coalesce(a.status, 'SCHEDULED') in :from")
+    int transitionStatuses(@Param("ids") Collection<Long> ids,
+                           @Param("from") Collection<String> from,
+                           @Param("to") String to);
+}
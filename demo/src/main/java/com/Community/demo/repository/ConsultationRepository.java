@@ -2,11 +2,22 @@ package com.Community.demo.repository;
 
 import com.Community.demo.model.ConsultationSession;
 import com.Community.demo.model.User;
+import com.Community.demo.payload.DailyCount;
+import com.Community.demo.payload.SessionInterval;
+import com.Community.demo.payload.UpcomingSession;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -21,7 +32,83 @@ public interface ConsultationRepository extends JpaRepository<ConsultationSessio
     List<ConsultationSession> findBySessionEndIsNull();
     List<ConsultationSession> findBySessionEndIsNotNull();
 
+    long countBySessionEndIsNull();
+
     // CRITICAL FIX: Query to find doctor IDs whose sessions haven't ended (i.e., they are busy/in-progress)
     @Query("SELECT cs.doctor.id FROM ConsultationSession cs WHERE cs.sessionEnd IS NULL")
     List<Long> findBusyDoctorIds();
-}
\ No newline at end of file
+
+    /** (sessionId, doctorId) for every open session with a doctor; used to reconcile BusyDoctors. */
+    @Query("select cs.id, cs.doctor.id from ConsultationSession cs where cs.sessionEnd is null and cs.doctor is not null")
+    List<Object[]> findOpenSessionDoctors();
+
+    /** Sessions with from < sessionStart <= until (until null = no horizon) in time order. */
+    @Query("select new com.Community.demo.payload.UpcomingSession(" +
+            "cs.id, cs.topic, cs.sessionStart, cs.mode, cs.patient.id, cs.doctor.id) " +
+            "from ConsultationSession cs where cs.sessionStart > :from " +
+            "and (:until is null or cs.sessionStart <= :until) " +
+            "and (:doctorId is null or cs.doctor.id = :doctorId) " +
+            "and (:patientId is null or cs.patient.id = :patientId) " +
+            "order by cs.sessionStart, cs.id")
+    List<UpcomingSession> findUpcoming(@Param("from") LocalDateTime from,
+                                       @Param("until") LocalDateTime until,
+                                       @Param("doctorId") Long doctorId,
+                                       @Param("patientId") Long patientId,
+                                       Limit limit);
+
+    /** A doctor's sessions starting in [from, to); served by idx_consultations_doctor_start. */
+    @Query("select new com.Community.demo.payload.SessionInterval(cs.id, cs.sessionStart, cs.sessionEnd) " +
+            "from ConsultationSession cs where cs.doctor.id = :doctorId " +
+            "and cs.sessionStart >= :from and cs.sessionStart < :to")
+    List<SessionInterval> findDoctorIntervals(@Param("doctorId") Long doctorId,
+                                              @Param("from") LocalDateTime from,
+                                              @Param("to") LocalDateTime to);
+
+    /** Sessions per start day and mode in [from, to); served by idx_consultations_session_start. */
+    @Query("select new com.Community.demo.payload.DailyCount(cast(cs.sessionStart as LocalDate), cs.mode, count(cs)) " +
+            "from ConsultationSession cs where cs.sessionStart >= :from and cs.sessionStart < :to " +
+            "group by cast(cs.sessionStart as LocalDate), cs.mode")
+    List<DailyCount> countPerDayByMode(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    /** Starts a session that has neither started nor ended; 0 if it is missing, running or ended. */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update ConsultationSession cs set cs.sessionStart = :now, cs.version = cs.version + 1 " +
+            "where cs.id = :id and cs.sessionStart is null and cs.sessionEnd is null")
+    int markStarted(@Param("id") Long id, @Param("now") LocalDateTime now);
+
+    /** Ends a running session; 0 if it is missing or already ended. */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update ConsultationSession cs set cs.sessionEnd = :now, cs.version = cs.version + 1 " +
+            "where cs.id = :id and cs.sessionEnd is null")
+    int markEnded(@Param("id") Long id, @Param("now") LocalDateTime now);
+
+    /**
+     * Open sessions started before the cutoff, locked for this transaction (SKIP LOCKED, as in
+     * OutboxEventRepository.claimDue). A range scan on idx_consultations_open.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("select cs from ConsultationSession cs where cs.sessionEnd is null and cs.sessionStart < :cutoff " +
+            "order by cs.sessionStart")
+    List<ConsultationSession> claimStaleStarted(@Param("cutoff") LocalDateTime cutoff, Limit limit);
+
+    /** Open sessions never started and created before the cutoff; same locking and index. */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("select cs from ConsultationSession cs where cs.sessionEnd is null and cs.sessionStart is null " +
+            "and cs.createdAt < :cutoff order by cs.createdAt")
+    List<ConsultationSession> claimStaleUnstarted(@Param("cutoff") LocalDateTime cutoff, Limit limit);
+
+    /** The listed sessions that are still open and were never started; same locking. */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("select cs from ConsultationSession cs where cs.id in :ids and cs.sessionEnd is null " +
+            "and cs.sessionStart is null")
+    List<ConsultationSession> claimUnstarted(@Param("ids") Collection<Long> ids);
+
+    /** Ends every listed session that is still open, in one statement. */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update ConsultationSession cs set cs.sessionEnd = :now, cs.version = cs.version + 1 " +
+            "where cs.id in :ids and cs.sessionEnd is null")
+    int markAllEnded(@Param("ids") Collection<Long> ids, @Param("now") LocalDateTime now);
+}
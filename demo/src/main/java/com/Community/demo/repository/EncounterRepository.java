@@ -1,9 +1,20 @@
 package com.Community.demo.repository;
 
 import com.Community.demo.model.*;
+import com.Community.demo.payload.EncounterExportRow;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
 import java.util.List;
 
 public interface EncounterRepository extends JpaRepository<Encounter, Long> {
     List<Encounter> findByPatientIdOrderByCreatedAtDesc(Long patientId);
+
+    /** Keyset chunk for the CSV export: rows with id > afterId, in id order. */
+    @Query("select new com.Community.demo.payload.EncounterExportRow(" +
+            "e.id, e.patient.id, e.doctor.id, e.createdAt, e.notes) " +
+            "from Encounter e where e.id > :afterId order by e.id")
+    List<EncounterExportRow> findExportChunk(@Param("afterId") long afterId, Limit limit);
 }
@@ -0,0 +1,15 @@
+package com.Community.demo.repository;
+
+import com.Community.demo.model.Notification;
+
+import java.util.List;
+
+/** JDBC batch insert fragment mixed into NotificationRepository. */
+public interface NotificationBatchRepository {
+
+    /**
+     * Inserts the notifications in JDBC batches and writes the generated ids back into them.
+     * Bypasses the persistence context, so JPA entity listeners do not run for these rows.
+     */
+    void insertBatch(List<Notification> notifications);
+}
@@ -0,0 +1,62 @@
+package com.Community.demo.repository;
+
+import com.Community.demo.model.Notification;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.Map;
+
+/** Batched notification inserts; see AppointmentBatchRepositoryImpl for why this bypasses JPA. */
+public class NotificationBatchRepositoryImpl implements NotificationBatchRepository {
+
+    private static final String INSERT_SQL =
+            "insert into notifications (user_id, title, message, is_read, created_at) values (?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${notifications.batch-size:500}")
+    private int batchSize;
+
+    public NotificationBatchRepositoryImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void insertBatch(List<Notification> notifications) {
+        int size = Math.max(1, batchSize);
+        for (int from = 0; from < notifications.size(); from += size) {
+            List<Notification> chunk = notifications.subList(from, Math.min(from + size, notifications.size()));
+            GeneratedKeyHolder keys = new GeneratedKeyHolder();
+            jdbcTemplate.batchUpdate(
+                    con -> con.prepareStatement(INSERT_SQL, Statement.RETURN_GENERATED_KEYS),
+                    new BatchPreparedStatementSetter() {
+                        @Override
+                        public void setValues(PreparedStatement ps, int i) throws SQLException {
+                            Notification n = chunk.get(i);
+                            ps.setLong(1, n.getUserId());
+                            ps.setString(2, n.getTitle());
+                            ps.setString(3, n.getMessage());
+                            ps.setBoolean(4, n.isRead());
+                            ps.setTimestamp(5, n.getCreatedAt() == null ? null : Timestamp.valueOf(n.getCreatedAt()));
+                        }
+
+                        @Override
+                        public int getBatchSize() {
+                            return chunk.size();
+                        }
+                    },
+                    keys);
+            List<Map<String, Object>> rows = keys.getKeyList();
+            for (int i = 0; i < chunk.size() && i < rows.size(); i++) {
+                chunk.get(i).setId(((Number) rows.get(i).values().iterator().next()).longValue());
+            }
+        }
+    }
+}
@@ -1,12 +1,59 @@
 package com.Community.demo.repository;
 
 import com.Community.demo.model.Notification;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
-public interface NotificationRepository extends JpaRepository<Notification, Long> {
+public interface NotificationRepository extends JpaRepository<Notification, Long>, NotificationBatchRepository {
     List<Notification> findByUserIdOrderByCreatedAtDesc(Long userId);
+
+    // --- feed: keyset pages, newest first, strictly before the (createdAt, id) cursor ---
+
+    @Query("select n from Notification n where n.userId = :userId " +
+            "and (n.createdAt < :createdAt or (n.createdAt = :createdAt and n.id < :id)) " +
+            "order by n.createdAt desc, n.id desc")
+    List<Notification> findFeedPage(@Param("userId") Long userId,
+                                    @Param("createdAt") LocalDateTime createdAt,
+                                    @Param("id") long id,
+                                    Limit limit);
+
+    @Query("select n from Notification n where n.userId = :userId and n.read = false " +
+            "and (n.createdAt < :createdAt or (n.createdAt = :createdAt and n.id < :id)) " +
+            "order by n.createdAt desc, n.id desc")
+    List<Notification> findUnreadFeedPage(@Param("userId") Long userId,
+                                          @Param("createdAt") LocalDateTime createdAt,
+                                          @Param("id") long id,
+                                          Limit limit);
+
+    /** Newest first; used to replay what a reconnecting stream subscriber missed. */
+    List<Notification> findByUserIdAndIdGreaterThanOrderByIdDesc(Long userId, Long id, Limit limit);
+
+    long countByReadFalse();
+
+    long countByUserIdAndReadFalse(Long userId);
+
+    @Query("select n.userId from Notification n where n.id = :id")
+    Optional<Long> findUserIdById(@Param("id") Long id);
+
+    /** Marks the user's unread notifications among {@code ids} read; returns how many changed. */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Notification n set n.read = true " +
+            "where n.userId = :userId and n.id in :ids and n.read = false")
+    int markReadByIds(@Param("userId") Long userId, @Param("ids") Collection<Long> ids);
+
+    /** Marks every unread notification of the user up to and including {@code upToId} read. */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Notification n set n.read = true " +
+            "where n.userId = :userId and n.id <= :upToId and n.read = false")
+    int markReadUpTo(@Param("userId") Long userId, @Param("upToId") Long upToId);
 }
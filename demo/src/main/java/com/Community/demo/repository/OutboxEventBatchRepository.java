@@ -0,0 +1,12 @@
+package com.Community.demo.repository;
+
+import com.Community.demo.model.OutboxEvent;
+
+import java.util.List;
+
+/** JDBC batch insert fragment mixed into OutboxEventRepository. */
+public interface OutboxEventBatchRepository {
+
+    /** Inserts the events in JDBC batches; ids are not read back. */
+    void insertBatch(List<OutboxEvent> events);
+}
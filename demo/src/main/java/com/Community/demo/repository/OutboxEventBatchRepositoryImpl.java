@@ -0,0 +1,37 @@
+package com.Community.demo.repository;
+
+import com.Community.demo.model.OutboxEvent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.util.List;
+
+/** Batched outbox inserts; see AppointmentBatchRepositoryImpl for why this bypasses JPA. */
+public class OutboxEventBatchRepositoryImpl implements OutboxEventBatchRepository {
+
+    private static final String INSERT_SQL =
+            "insert into outbox_events (event_type, payload, status, attempts, available_at, created_at) " +
+            "values (?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${outbox.batch-size:200}")
+    private int batchSize;
+
+    public OutboxEventBatchRepositoryImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void insertBatch(List<OutboxEvent> events) {
+        jdbcTemplate.batchUpdate(INSERT_SQL, events, Math.max(1, batchSize), (ps, e) -> {
+            ps.setString(1, e.getEventType());
+            ps.setString(2, e.getPayload());
+            ps.setString(3, e.getStatus());
+            ps.setInt(4, e.getAttempts());
+            ps.setTimestamp(5, Timestamp.valueOf(e.getAvailableAt()));
+            ps.setTimestamp(6, Timestamp.valueOf(e.getCreatedAt()));
+        });
+    }
+}
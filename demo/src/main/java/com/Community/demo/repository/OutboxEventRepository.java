@@ -0,0 +1,28 @@
+package com.Community.demo.repository;
+
+import com.Community.demo.model.OutboxEvent;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long>, OutboxEventBatchRepository {
+
+    /**
+     * Claims due events for this transaction. Lock timeout -2 is Hibernate's SKIP LOCKED, so
+     * several dispatchers (threads or nodes) each get a disjoint batch without waiting.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("select e from OutboxEvent e where e.status = 'PENDING' and e.availableAt <= :now order by e.id")
+    List<OutboxEvent> claimDue(@Param("now") LocalDateTime now, Limit limit);
+}
@@ -1,9 +1,20 @@
 package com.Community.demo.repository;
 
 import com.Community.demo.model.*;
+import com.Community.demo.payload.PrescriptionExportRow;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
 import java.util.List;
 
 public interface PrescriptionRepository extends JpaRepository<Prescription, Long> {
     List<Prescription> findByPatientIdOrderByCreatedAtDesc(Long patientId);
+
+    /** Keyset chunk for the CSV export: rows with id > afterId, in id order. */
+    @Query("select new com.Community.demo.payload.PrescriptionExportRow(" +
+            "p.id, p.patient.id, p.doctor.id, p.medication, p.dose, p.frequency, p.days, p.createdAt) " +
+            "from Prescription p where p.id > :afterId order by p.id")
+    List<PrescriptionExportRow> findExportChunk(@Param("afterId") long afterId, Limit limit);
 }
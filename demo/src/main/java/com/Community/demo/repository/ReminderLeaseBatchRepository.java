@@ -0,0 +1,11 @@
+package com.Community.demo.repository;
+
+import java.util.Collection;
+import java.util.Set;
+
+/** INSERT IGNORE claim fragment mixed into ReminderLeaseRepository. */
+public interface ReminderLeaseBatchRepository {
+
+    /** Tries to claim every key for {@code owner}; returns the keys this owner now holds. */
+    Set<String> acquire(Collection<String> keys, String owner);
+}
@@ -0,0 +1,47 @@
+package com.Community.demo.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * One batched INSERT IGNORE for all keys, then a read-back of the keys owned by this node.
+ * Reading back (rather than trusting per-row update counts) keeps working when Connector/J
+ * rewrites the batch and reports SUCCESS_NO_INFO.
+ */
+public class ReminderLeaseBatchRepositoryImpl implements ReminderLeaseBatchRepository {
+
+    private static final String INSERT_SQL =
+            "insert ignore into reminder_leases (reminder_key, owner, created_at) values (?, ?, ?)";
+    private static final String OWNED_SQL =
+            "select reminder_key from reminder_leases where owner = :owner and reminder_key in (:keys)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+
+    public ReminderLeaseBatchRepositoryImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+    }
+
+    @Override
+    public Set<String> acquire(Collection<String> keys, String owner) {
+        if (keys.isEmpty()) return Set.of();
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> rows = new ArrayList<>(keys.size());
+        for (String key : keys) {
+            rows.add(new Object[]{key, owner, now});
+        }
+        jdbcTemplate.batchUpdate(INSERT_SQL, rows);
+        return new HashSet<>(namedJdbcTemplate.queryForList(OWNED_SQL,
+                new MapSqlParameterSource().addValue("owner", owner).addValue("keys", keys), String.class));
+    }
+}
@@ -0,0 +1,18 @@
+package com.Community.demo.repository;
+
+import com.Community.demo.model.ReminderLease;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface ReminderLeaseRepository extends JpaRepository<ReminderLease, String>, ReminderLeaseBatchRepository {
+
+    @Modifying
+    @Query("delete from ReminderLease l where l.createdAt < :before")
+    int deleteOlderThan(@Param("before") LocalDateTime before);
+}
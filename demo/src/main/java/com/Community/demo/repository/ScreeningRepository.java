@@ -2,6 +2,28 @@
 package com.Community.demo.repository;
 
 import com.Community.demo.model.Screening;
+import com.Community.demo.payload.DailyCount;
+import com.Community.demo.payload.ScreeningExportRow;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
-public interface ScreeningRepository extends JpaRepository<Screening, Long> { }
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface ScreeningRepository extends JpaRepository<Screening, Long> {
+
+    /** Keyset chunk for the CSV export: rows with id > afterId, in id order. */
+    @Query("select new com.Community.demo.payload.ScreeningExportRow(" +
+            "s.id, s.user.id, s.takenAt, s.systolic, s.diastolic, s.glucose, s.glucoseType, " +
+            "s.heightCm, s.weightKg, s.bmi) " +
+            "from Screening s where s.id > :afterId order by s.id")
+    List<ScreeningExportRow> findExportChunk(@Param("afterId") long afterId, Limit limit);
+
+    /** Screenings per camp day in [from, to); served by idx_screenings_taken_at. */
+    @Query("select new com.Community.demo.payload.DailyCount(cast(s.takenAt as LocalDate), 'ALL', count(s)) " +
+            "from Screening s where s.takenAt >= :from and s.takenAt < :to " +
+            "group by cast(s.takenAt as LocalDate)")
+    List<DailyCount> countPerDay(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+}
@@ -1,10 +1,13 @@
 package com.Community.demo.repository;
 
 import com.Community.demo.model.User;
+import com.Community.demo.payload.UserSummary;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -14,4 +17,34 @@ public interface UserRepository extends JpaRepository<User, Long> {
 
     @Query("select u from User u join u.roles r where r = :role")
     List<User> findByRole(@Param("role") String role);
+
+    /**
+     * Ids holding the role, read from idx_user_roles_role_user without touching users. Native,
+     * because JPQL can only reach the collection table through a join on users.
+     */
+    @Query(value = "select user_id from user_roles where roles = :role order by user_id", nativeQuery = true)
+    List<Long> findIdsByRole(@Param("role") String role);
+
+    /** Users with their roles in one query (roles are EAGER and would otherwise load one by one). */
+    @Query("select distinct u from User u left join fetch u.roles where u.id in :ids order by u.id")
+    List<User> findWithRolesByIdIn(@Param("ids") Collection<Long> ids);
+
+    /** Which of the given ids exist; one indexed lookup for a whole bulk request. */
+    @Query("select u.id from User u where u.id in :ids")
+    List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
+
+    // --- admin listing: keyset pages over the primary key ---
+
+    @Query("select new com.Community.demo.payload.UserSummary(u.id, u.name, u.email, u.phone, u.preferredLanguage) " +
+            "from User u where u.id > :afterId order by u.id")
+    List<UserSummary> findSummaryPage(@Param("afterId") long afterId, Limit limit);
+
+    /** Walks idx_user_roles_role_user in user_id order for the role. */
+    @Query("select new com.Community.demo.payload.UserSummary(u.id, u.name, u.email, u.phone, u.preferredLanguage) " +
+            "from User u join u.roles r where r = :role and u.id > :afterId order by u.id")
+    List<UserSummary> findSummaryPageByRole(@Param("role") String role, @Param("afterId") long afterId, Limit limit);
+
+    /** (userId, role) pairs for one page of users. */
+    @Query("select u.id, r from User u join u.roles r where u.id in :ids")
+    List<Object[]> findRolePairs(@Param("ids") Collection<Long> ids);
 }
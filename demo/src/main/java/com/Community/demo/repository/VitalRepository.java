@@ -1,9 +1,21 @@
 package com.Community.demo.repository;
 
 import com.Community.demo.model.*;
+import com.Community.demo.payload.VitalExportRow;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
 import java.util.List;
 
 public interface VitalRepository extends JpaRepository<VitalReading, Long> {
     List<VitalReading> findByPatientIdOrderByMeasuredAtDesc(Long patientId);
+
+    /** Keyset chunk for the CSV export: rows with id > afterId, in id order. */
+    @Query("select new com.Community.demo.payload.VitalExportRow(" +
+            "v.id, v.patient.id, v.recordedBy.id, v.measuredAt, v.systolic, v.diastolic, " +
+            "v.glucoseMgdl, v.glucoseType, v.heightCm, v.weightKg, v.bmi) " +
+            "from VitalReading v where v.id > :afterId order by v.id")
+    List<VitalExportRow> findExportChunk(@Param("afterId") long afterId, Limit limit);
 }
@@ -82,9 +82,13 @@ public class SecurityConfig {
                         .requestMatchers(HttpMethod.GET, "/api/auth/**").permitAll()
                         // Public Doctor Lookup
                         .requestMatchers(HttpMethod.GET, "/api/public/doctors").permitAll()
+                        .requestMatchers(HttpMethod.GET, "/api/public/doctors/stream").permitAll()
                         // Swagger/Docs
                         .requestMatchers("/v3/api-docs/**", "/swagger-ui/**", "/swagger-ui.html").permitAll()
                         // Specific Public GET Endpoints
+                        // per-user notification reads; checked against the token's user id
+                        .requestMatchers(HttpMethod.GET, "/api/notifications/stream",
+                                "/api/notifications/unread-count", "/api/notifications/feed").authenticated()
                         .requestMatchers(HttpMethod.GET, "/api/notifications/**").permitAll()
                         .requestMatchers(HttpMethod.GET, "/api/appointments/*/join-info").permitAll()
                         .requestMatchers(HttpMethod.GET, "/api/consultations/*/join-info").permitAll()
@@ -129,7 +133,7 @@ public class SecurityConfig {
         // This removes the illegal "*" wildcard.
         cfg.setAllowedOrigins(List.of("http://localhost:3000", "http://127.0.0.1:3000", "http://127.0.0.1:5501", "http://localhost:5501"));
 
-        cfg.setAllowedMethods(List.of("GET", "POST", "PUT", "DELETE", "OPTIONS"));
+        cfg.setAllowedMethods(List.of("GET", "POST", "PUT", "PATCH", "DELETE", "OPTIONS"));
         cfg.setAllowedHeaders(List.of("*"));
         cfg.setAllowCredentials(true);
         cfg.setExposedHeaders(List.of("Authorization"));
@@ -1,18 +1,30 @@
 // src/main/java/com/Community/demo/services/AdminService.java
 package com.Community.demo.services;
 
-import com.Community.demo.model.Appointment;
 import com.Community.demo.model.User;
 import com.Community.demo.payload.AdminStats;
+import com.Community.demo.payload.AppointmentSummary;
+import com.Community.demo.payload.KeysetPage;
+import com.Community.demo.payload.LatencySummary;
+import com.Community.demo.payload.UserSummary;
 
 import jakarta.servlet.http.HttpServletResponse;
+import java.time.LocalDateTime;
 import java.util.List;
 
 public interface AdminService {
-    List<User> listUsers();
+    KeysetPage<UserSummary> listUsers(Long after, Integer limit, String role);
     List<User> findUsersByRole(String roleName);
-    List<Appointment> listAppointments();
+    KeysetPage<AppointmentSummary> listAppointments(Long after, Integer limit, String status,
+                                                    LocalDateTime from, LocalDateTime to);
     AdminStats getStats();
+    /**
+     * Consultation timing percentiles over the rolling window: one doctor if doctorId is given,
+     * else one mode if mode is given, else the totals and every mode (plus every doctor when
+     * perDoctor is set).
+     */
+    List<LatencySummary> getConsultationMetrics(Long doctorId, String mode, boolean perDoctor);
     void exportAppointmentsCsv(HttpServletResponse resp);
     void exportScreeningsCsv(HttpServletResponse resp);
+    void exportBundleZip(HttpServletResponse resp, Integer compressionLevel);
 }
@@ -0,0 +1,11 @@
+package com.Community.demo.services;
+
+import com.Community.demo.payload.AnalyticsResponse;
+
+import java.time.LocalDate;
+
+public interface AnalyticsService {
+
+    /** Per-day or per-week histograms for [from, to] (both inclusive); granularity is "day" or "week". */
+    AnalyticsResponse getAnalytics(LocalDate from, LocalDate to, String granularity);
+}
@@ -1,15 +1,23 @@
 package com.Community.demo.services;
 
 import com.Community.demo.model.Appointment;
+import com.Community.demo.payload.AppointmentRequest;
+import com.Community.demo.payload.BulkBookingResponse;
+import com.Community.demo.payload.UpcomingAppointment;
 
 import java.util.List;
 import java.util.Optional;
 
 public interface AppointmentService {
     Appointment createAppointment(Appointment appointment);
+    /** Books many appointments in one transaction; invalid items are reported per index. */
+    BulkBookingResponse bookBulk(List<AppointmentRequest> requests);
     Optional<Appointment> getAppointmentById(String id);
     List<Appointment> getAllAppointments();
-    List<Appointment> getUpcomingAppointments();
+    /** Appointments in (now, now + horizonHours], soonest first; every argument is optional. */
+    List<UpcomingAppointment> getUpcomingAppointments(Long doctorId, Long patientId, Integer horizonHours, Integer limit);
     Optional<Appointment> updateAppointment(Appointment appointment);
+    /** Conditional status transition; empty if missing, ConflictException if the current status does not allow it. */
+    Optional<UpcomingAppointment> updateStatus(Long id, String status);
     boolean deleteAppointment(String id);
 }
@@ -1,7 +1,10 @@
 package com.Community.demo.services;
 
 import com.Community.demo.model.ConsultationSession;
+import com.Community.demo.payload.UpcomingSession;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -9,9 +12,18 @@ public interface ConsultationService {
     ConsultationSession createSession(ConsultationSession session);
     Optional<ConsultationSession> getSessionById(Long id);
     List<ConsultationSession> getAllSessions();
-    List<ConsultationSession> getUpcomingSessions();
+    /** Sessions starting in (now, now + horizonHours], soonest first; every argument is optional. */
+    List<UpcomingSession> getUpcomingSessions(Long doctorId, Long patientId, Integer horizonHours, Integer limit);
     Optional<ConsultationSession> startSession(Long id);
     Optional<ConsultationSession> endSession(Long id);
     Optional<ConsultationSession> updateSession(ConsultationSession session);
     boolean deleteSession(Long id);
+    /**
+     * Ends up to {@code limit} abandoned sessions: open and started before {@code startedBefore},
+     * or never started and created before {@code createdBefore}. Returns how many were closed.
+     */
+    int closeStaleSessions(LocalDateTime startedBefore, LocalDateTime createdBefore, int limit);
+
+    /** Ends those of the listed sessions that are still open and were never started. */
+    int closeUnstartedSessions(Collection<Long> ids);
 }
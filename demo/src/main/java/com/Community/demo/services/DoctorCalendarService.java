@@ -0,0 +1,12 @@
+package com.Community.demo.services;
+
+import com.Community.demo.payload.DoctorCalendarResponse;
+
+import java.time.LocalDate;
+import java.util.Optional;
+
+public interface DoctorCalendarService {
+
+    /** Free/busy bitmaps for [from, to] (both inclusive, default one week from today); empty if there is no such user. */
+    Optional<DoctorCalendarResponse> getCalendar(Long doctorId, LocalDate from, LocalDate to);
+}
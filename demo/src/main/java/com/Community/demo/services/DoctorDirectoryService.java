@@ -0,0 +1,9 @@
+package com.Community.demo.services;
+
+import com.Community.demo.payload.DoctorDirectory;
+
+public interface DoctorDirectoryService {
+
+    /** Currently available doctors, served from cache unless a role change or busy/free flip happened since. */
+    DoctorDirectory availableDoctors();
+}
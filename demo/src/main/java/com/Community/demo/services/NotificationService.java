@@ -1,11 +1,45 @@
 package com.Community.demo.services;
 
 import com.Community.demo.model.Notification;
+import com.Community.demo.payload.NotificationFeedPage;
 import java.util.List;
 
 
 public interface NotificationService {
+
+    /** How {@link #send} gets notifications into the table. */
+    enum Delivery {
+        /**
+         * Queued once the caller's transaction commits and written by a background flusher
+         * within notifications.flush-interval-ms; lost if the node dies before that.
+         */
+        WRITE_BEHIND,
+        /** Written as one batch inside the caller's transaction, just before it commits. */
+        BEFORE_COMMIT
+    }
+
+    /** Inserts one notification in the caller's transaction; the returned one has its id. */
     Notification createNotification(Long userId, String title, String message);
+    /** Inserts all notifications in JDBC batches; ids are set on the given objects. */
+    void createNotifications(List<Notification> notifications);
+    /**
+     * Sends the notifications with the given delivery, skipping any (user, title, message)
+     * already sent within notifications.coalesce-window-ms.
+     */
+    void send(List<Notification> notifications, Delivery delivery);
     List<Notification> getNotificationsForUser(Long userId);
+    /**
+     * One page of the user's notifications, newest first, strictly older than the
+     * {@code before} cursor ("createdAt,id" from a previous page; null for the first page).
+     */
+    NotificationFeedPage getFeed(Long userId, String before, Integer limit, boolean unreadOnly);
+    /** Up to {@code limit} of the user's newest notifications with an id above {@code afterId}, newest first. */
+    List<Notification> getNotificationsAfter(Long userId, long afterId, int limit);
     void markAsRead(Long notificationId);
+    /** Marks the given notifications of the user read in one UPDATE; returns how many changed. */
+    int markRead(Long userId, List<Long> notificationIds);
+    /** Marks all of the user's notifications with id <= upToId read in one UPDATE. */
+    int markAllRead(Long userId, long upToId);
+    /** The user's unread count; served from UnreadCounts once loaded. */
+    long countUnread(Long userId);
 }
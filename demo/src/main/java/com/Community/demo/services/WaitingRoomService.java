@@ -0,0 +1,20 @@
+package com.Community.demo.services;
+
+import com.Community.demo.payload.WaitingRoomDuty;
+import com.Community.demo.payload.WaitingRoomStats;
+import com.Community.demo.payload.WaitingTicketResponse;
+
+import java.util.List;
+import java.util.Optional;
+
+public interface WaitingRoomService {
+    /** Queues the patient for the specialty, matching at once if a doctor is free; 400 if none is on duty. */
+    WaitingTicketResponse join(Long patientId, String specialty);
+    Optional<WaitingTicketResponse> getTicket(long ticketId);
+    /** Leaves the line; 409 once the ticket has been matched. */
+    Optional<WaitingTicketResponse> leave(long ticketId);
+    /** Puts a doctor on duty for their specialty; empty if there is no such user. */
+    Optional<WaitingRoomDuty> startDuty(Long doctorId);
+    Optional<WaitingRoomDuty> endDuty(Long doctorId);
+    List<WaitingRoomStats> stats();
+}
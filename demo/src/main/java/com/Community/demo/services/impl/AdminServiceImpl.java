@@ -1,130 +1,354 @@
 package com.Community.demo.services.impl;
 
-import com.Community.demo.model.Appointment;
-import com.Community.demo.model.Screening;
+import com.Community.demo.cache.RoleDirectory;
+import com.Community.demo.exception.BadRequestException;
+import com.Community.demo.metrics.ConsultationMetrics;
+import com.Community.demo.metrics.EntityCounters;
+import com.Community.demo.metrics.EntityCounters.Counter;
 import com.Community.demo.model.User;
 import com.Community.demo.payload.AdminStats;
+import com.Community.demo.payload.AppointmentSummary;
+import com.Community.demo.payload.KeysetPage;
+import com.Community.demo.payload.LatencySummary;
+import com.Community.demo.payload.UserSummary;
 import com.Community.demo.repository.AppointmentRepository;
-import com.Community.demo.repository.ScreeningRepository;
 import com.Community.demo.repository.UserRepository;
 import com.Community.demo.services.AdminService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import jakarta.servlet.http.HttpServletResponse;
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
 import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.Future;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
 
 @Service
 public class AdminServiceImpl implements AdminService {
 
+    private static final Logger log = LoggerFactory.getLogger(AdminServiceImpl.class);
+
+    private static final int CSV_BUFFER_SIZE = 64 * 1024;
+
     // --- 1. UNIFIED FINAL FIELDS ---
     private final UserRepository userRepository;
     private final AppointmentRepository appointmentRepository;
-    private final ScreeningRepository screeningRepository;
+    private final EntityCounters entityCounters;
+    private final ConsultationMetrics consultationMetrics;
+    private final RoleDirectory roleDirectory;
+    private final CsvTableExporter csvTableExporter;
+    private final Executor exportExecutor;
+    private final TransactionTemplate readOnlyTx;
+
+    @Value("${admin.page.default-limit:50}")
+    private int defaultPageLimit;
+
+    @Value("${admin.page.max-limit:500}")
+    private int maxPageLimit;
 
     // --- 2. UNIFIED CONSTRUCTOR (Spring uses this one) ---
     public AdminServiceImpl(UserRepository userRepository,
                             AppointmentRepository appointmentRepository,
-                            ScreeningRepository screeningRepository) {
+                            EntityCounters entityCounters,
+                            ConsultationMetrics consultationMetrics,
+                            RoleDirectory roleDirectory,
+                            CsvTableExporter csvTableExporter,
+                            @Qualifier("exportExecutor") Executor exportExecutor,
+                            PlatformTransactionManager transactionManager) {
         this.userRepository = userRepository;
         this.appointmentRepository = appointmentRepository;
-        this.screeningRepository = screeningRepository;
+        this.entityCounters = entityCounters;
+        this.consultationMetrics = consultationMetrics;
+        this.roleDirectory = roleDirectory;
+        this.csvTableExporter = csvTableExporter;
+        this.exportExecutor = exportExecutor;
+        this.readOnlyTx = new TransactionTemplate(transactionManager);
+        this.readOnlyTx.setReadOnly(true);
     }
 
     // --- 3. NEW: FIND USERS BY ROLE (Required for DoctorLookupController) ---
+    // Ids come from the in-memory role directory (DB index lookup on a miss), then only those
+    // users are loaded, so the cost follows the size of the role rather than the users table.
     @Override
+    @Transactional(readOnly = true)
     public List<User> findUsersByRole(String roleName) {
-        // Fetch all users and filter them in memory by role
-        return userRepository.findAll().stream()
-                .filter(user -> user.getRoles() != null && user.getRoles().contains(roleName))
-                // CRITICAL FIX: Collectors import resolved the previous error
-                .collect(Collectors.toList());
+        List<Long> ids = roleDirectory.get(roleName);
+        if (ids == null) {
+            long generation = roleDirectory.generation();
+            ids = userRepository.findIdsByRole(roleName);
+            roleDirectory.put(roleName, ids, generation);
+        }
+        return ids.isEmpty() ? List.of() : userRepository.findWithRolesByIdIn(ids);
     }
 
     // --- 4. EXISTING ADMIN METHODS ---
 
+    // Keyset pages: each page is one index range scan of at most limit + 1 rows, however deep
+    // the cursor is, and returns flat projections instead of entities with EAGER associations.
     @Override
-    public List<User> listUsers() {
-        return userRepository.findAll();
+    @Transactional(readOnly = true)
+    public KeysetPage<UserSummary> listUsers(Long after, Integer limit, String role) {
+        int size = pageLimit(limit);
+        long afterId = after == null ? 0 : after;
+        List<UserSummary> rows = role == null || role.isBlank()
+                ? userRepository.findSummaryPage(afterId, Limit.of(size + 1))
+                : userRepository.findSummaryPageByRole(role, afterId, Limit.of(size + 1));
+        KeysetPage<UserSummary> page = KeysetPage.of(rows, size, UserSummary::id);
+        return new KeysetPage<>(withRoles(page.items()), page.nextAfter());
     }
 
     @Override
-    public List<Appointment> listAppointments() {
-        return appointmentRepository.findAll();
+    @Transactional(readOnly = true)
+    public KeysetPage<AppointmentSummary> listAppointments(Long after, Integer limit, String status,
+                                                           LocalDateTime from, LocalDateTime to) {
+        int size = pageLimit(limit);
+        if (from != null && to != null && from.isAfter(to)) {
+            throw new BadRequestException("from must not be after to");
+        }
+        List<AppointmentSummary> rows = appointmentRepository.findSummaryPage(
+                after == null ? 0 : after, status == null || status.isBlank() ? null : status,
+                from, to, Limit.of(size + 1));
+        return KeysetPage.of(rows, size, AppointmentSummary::id);
+    }
+
+    private int pageLimit(Integer limit) {
+        int size = limit == null ? defaultPageLimit : limit;
+        if (size < 1 || size > maxPageLimit) {
+            throw new BadRequestException("limit must be between 1 and " + maxPageLimit);
+        }
+        return size;
+    }
+
+    /** Fills in roles for one page with a single query on user_roles. */
+    private List<UserSummary> withRoles(List<UserSummary> users) {
+        if (users.isEmpty()) return users;
+        Map<Long, Set<String>> roles = new HashMap<>();
+        for (Object[] pair : userRepository.findRolePairs(users.stream().map(UserSummary::id).toList())) {
+            roles.computeIfAbsent((Long) pair[0], id -> new HashSet<>()).add((String) pair[1]);
+        }
+        return users.stream().map(u -> u.withRoles(roles.getOrDefault(u.id(), Set.of()))).toList();
     }
 
+    /** Served from the in-memory counters; no COUNT(*) per dashboard refresh. */
     @Override
     public AdminStats getStats() {
         AdminStats s = new AdminStats();
-        s.setUserCount((int) userRepository.count());
-        s.setAppointmentCount((int) appointmentRepository.count());
-        s.setScreeningCount((int) screeningRepository.count());
+        s.setUserCount((int) entityCounters.get(Counter.USERS));
+        s.setAppointmentCount((int) entityCounters.get(Counter.APPOINTMENTS));
+        s.setScreeningCount((int) entityCounters.get(Counter.SCREENINGS));
+        s.setVitalCount((int) entityCounters.get(Counter.VITALS));
+        s.setConsultationCount((int) entityCounters.get(Counter.CONSULTATIONS));
+        s.setActiveSessionCount((int) entityCounters.get(Counter.ACTIVE_SESSIONS));
+        s.setUnreadNotificationCount((int) entityCounters.get(Counter.UNREAD_NOTIFICATIONS));
         return s;
     }
 
     @Override
+    public List<LatencySummary> getConsultationMetrics(Long doctorId, String mode, boolean perDoctor) {
+        if (doctorId != null) {
+            String doctor = ConsultationMetrics.doctorDimension(doctorId);
+            return consultationMetrics.summaries(doctor::equals);
+        }
+        if (mode != null && !mode.isBlank()) {
+            String wanted = ConsultationMetrics.modeDimension(mode);
+            return consultationMetrics.summaries(wanted::equals);
+        }
+        return consultationMetrics.summaries(d -> d.equals(ConsultationMetrics.ALL) || d.startsWith("mode:")
+                || (perDoctor && d.startsWith("doctor:")));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
     public void exportAppointmentsCsv(HttpServletResponse resp) {
         resp.setContentType("text/csv");
+        resp.setCharacterEncoding("UTF-8");
         resp.setHeader("Content-Disposition", "attachment; filename=\"appointments.csv\"");
         try {
-            resp.getWriter().write("id,title,scheduledAt,status,patientId,doctorId\n");
-            appointmentRepository.findAll().forEach(a -> {
-                try {
-                    Long pid = a.getPatient() == null ? null : a.getPatient().getId();
-                    Long did = a.getDoctor() == null ? null : a.getDoctor().getId();
-                    String line = String.format("%d,%s,%s,%s,%s,%s\n",
-                            a.getId(),
-                            safe(a.getTitle()),
-                            a.getScheduledAt() == null ? "" : a.getScheduledAt().toString(),
-                            safe(a.getStatus()),
-                            pid == null ? "" : pid.toString(),
-                            did == null ? "" : did.toString()
-                    );
-                    resp.getWriter().write(line);
-                } catch (IOException e) {
-                    // ignore row write error
-                }
-            });
-            resp.getWriter().flush();
+            Writer out = new BufferedWriter(
+                    new OutputStreamWriter(resp.getOutputStream(), StandardCharsets.UTF_8), CSV_BUFFER_SIZE);
+            out.write(CsvTableExporter.APPOINTMENTS_HEADER);
+            out.flush(); // commit headers so the download starts before the first row is read
+            csvTableExporter.writeAppointmentRows(out);
+            out.flush();
         } catch (IOException e) {
-            // log if needed
+            log.warn("Appointments CSV export aborted: {}", e.getMessage());
         }
     }
 
     @Override
     public void exportScreeningsCsv(HttpServletResponse resp) {
         resp.setContentType("text/csv");
+        resp.setCharacterEncoding("UTF-8");
         resp.setHeader("Content-Disposition", "attachment; filename=\"screenings.csv\"");
+
+        long startNanos = System.nanoTime();
+        long[] rowCount = {0};
+        try {
+            // trailers are only sent on chunked responses; ignore if the container refuses them
+            resp.setTrailerFields(() -> exportMetrics(rowCount[0], startNanos));
+            // announced only once the container has accepted them
+            resp.setHeader("Trailer", "X-Export-Rows, X-Export-Duration-Ms, X-Export-Rows-Per-Sec");
+        } catch (IllegalStateException e) {
+            log.debug("Trailer fields not supported for this response: {}", e.getMessage());
+        }
+
         try {
-            resp.getWriter().write("id,userId,takenAt,systolic,diastolic,glucose,glucoseType,heightCm,weightKg,bmi\n");
-            screeningRepository.findAll().forEach(s -> {
+            Writer out = new BufferedWriter(
+                    new OutputStreamWriter(resp.getOutputStream(), StandardCharsets.UTF_8), CSV_BUFFER_SIZE);
+            out.write(CsvTableExporter.SCREENINGS_HEADER);
+            out.flush();
+            // counted per chunk, so an aborted export still logs the rows it got through
+            csvTableExporter.writeScreeningRows(out, rows -> rowCount[0] += rows);
+            out.flush();
+        } catch (IOException e) {
+            log.warn("Screenings CSV export aborted after {} rows: {}", rowCount[0], e.getMessage());
+        }
+
+        Map<String, String> metrics = exportMetrics(rowCount[0], startNanos);
+        log.info("Screenings CSV export: rows={} durationMs={} rowsPerSec={}",
+                metrics.get("X-Export-Rows"), metrics.get("X-Export-Duration-Ms"), metrics.get("X-Export-Rows-Per-Sec"));
+    }
+
+    /**
+     * Builds every table CSV concurrently on the bounded export executor, each in its own read-only
+     * transaction and spooled to a temp file, then streams each file into the ZIP as soon as it is
+     * ready. Total time tracks the slowest table rather than the sum of all tables.
+     */
+    @Override
+    public void exportBundleZip(HttpServletResponse resp, Integer compressionLevel) {
+        int level = compressionLevel == null ? Deflater.DEFAULT_COMPRESSION : compressionLevel;
+        if (level < Deflater.DEFAULT_COMPRESSION || level > Deflater.BEST_COMPRESSION) {
+            throw new BadRequestException("level must be between -1 and 9");
+        }
+
+        Map<String, CsvTableExporter.TableWriter> tables = csvTableExporter.tables();
+        CompletionService<SpooledTable> completion = new ExecutorCompletionService<>(exportExecutor);
+        List<Future<SpooledTable>> pending = new ArrayList<>();
+        tables.forEach((name, writer) -> pending.add(completion.submit(() -> spoolTable(name, writer))));
+
+        resp.setContentType("application/zip");
+        resp.setHeader("Content-Disposition", "attachment; filename=\"bundle.zip\"");
+        long startNanos = System.nanoTime();
+        List<String> failures = new ArrayList<>();
+        try (ZipOutputStream zip = new ZipOutputStream(
+                new BufferedOutputStream(resp.getOutputStream(), CSV_BUFFER_SIZE))) {
+            zip.setLevel(level);
+            for (int i = 0; i < tables.size(); i++) {
+                SpooledTable table = completion.take().get();
+                if (table.error() != null) {
+                    failures.add(table.name() + ": " + table.error());
+                    continue;
+                }
                 try {
-                    Long uid = s.getUser() == null ? null : s.getUser().getId();
-                    String line = String.format("%d,%s,%s,%s,%s,%s,%s,%s,%s,%s\n",
-                            s.getId(),
-                            uid == null ? "" : uid.toString(),
-                            s.getTakenAt() == null ? "" : s.getTakenAt().toString(),
-                            s.getSystolic(),
-                            s.getDiastolic(),
-                            s.getGlucose(),
-                            safe(s.getGlucoseType()),
-                            s.getHeightCm(),
-                            s.getWeightKg(),
-                            s.getBmi()
-                    );
-                    resp.getWriter().write(line);
-                } catch (IOException e) {
-                    // ignore per-row write error
+                    zip.putNextEntry(new ZipEntry(table.name() + ".csv"));
+                    Files.copy(table.file(), zip);
+                    zip.closeEntry();
+                    zip.flush();
+                } finally {
+                    deleteQuietly(table.file());
                 }
-            });
-            resp.getWriter().flush();
+                log.info("Export bundle: {} rows={} in {} ms", table.name(), table.rows(), table.elapsedMs());
+            }
+            if (!failures.isEmpty()) {
+                // the ZIP is already streaming, so report failed tables inside it rather than via status
+                zip.putNextEntry(new ZipEntry("errors.txt"));
+                zip.write(String.join("\n", failures).getBytes(StandardCharsets.UTF_8));
+                zip.closeEntry();
+            }
+            zip.finish();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("Export bundle interrupted");
+        } catch (ExecutionException e) {
+            log.error("Export bundle failed: {}", e.getCause().getMessage(), e.getCause());
         } catch (IOException e) {
-            // log if needed
+            log.warn("Export bundle aborted: {}", e.getMessage());
+        } finally {
+            cleanUp(pending);
         }
+        log.info("Export bundle finished in {} ms, failed tables: {}",
+                (System.nanoTime() - startNanos) / 1_000_000, failures.size());
     }
 
-    private String safe(String s) {
-        return s == null ? "" : s.replaceAll("[\\r\\n,]", " ");
+    /** Writes one table to a temp file inside its own read-only transaction; never throws. */
+    private SpooledTable spoolTable(String name, CsvTableExporter.TableWriter writer) {
+        long start = System.nanoTime();
+        Path file = null;
+        try {
+            file = Files.createTempFile("export-" + name + "-", ".csv");
+            try (Writer out = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+                Long rows = readOnlyTx.execute(status -> {
+                    try {
+                        return writer.write(out);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+                return new SpooledTable(name, file, rows == null ? 0 : rows,
+                        (System.nanoTime() - start) / 1_000_000, null);
+            }
+        } catch (Exception e) {
+            log.error("Export bundle: table {} failed: {}", name, e.getMessage(), e);
+            if (file != null) deleteQuietly(file);
+            return new SpooledTable(name, null, 0, (System.nanoTime() - start) / 1_000_000, e.getMessage());
+        }
     }
+
+    /** Cancels unfinished tables (e.g. after a client abort) and removes any spooled files. */
+    private void cleanUp(List<Future<SpooledTable>> pending) {
+        for (Future<SpooledTable> f : pending) {
+            if (f.cancel(true)) continue;
+            try {
+                Path file = f.get().file();
+                if (file != null) deleteQuietly(file);
+            } catch (Exception ignored) {
+                // nothing was spooled for this table
+            }
+        }
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.debug("Could not delete export temp file {}: {}", file, e.getMessage());
+        }
+    }
+
+    private static Map<String, String> exportMetrics(long rows, long startNanos) {
+        long elapsedMs = Math.max(1, (System.nanoTime() - startNanos) / 1_000_000);
+        return Map.of(
+                "X-Export-Rows", Long.toString(rows),
+                "X-Export-Duration-Ms", Long.toString(elapsedMs),
+                "X-Export-Rows-Per-Sec", Long.toString(rows * 1000 / elapsedMs));
+    }
+
+    private record SpooledTable(String name, Path file, long rows, long elapsedMs, String error) {}
 }
\ No newline at end of file
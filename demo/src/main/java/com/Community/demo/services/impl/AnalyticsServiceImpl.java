@@ -0,0 +1,130 @@
+package com.Community.demo.services.impl;
+
+import com.Community.demo.cache.AnalyticsCache;
+import com.Community.demo.cache.AnalyticsCache.Series;
+import com.Community.demo.exception.BadRequestException;
+import com.Community.demo.payload.AnalyticsResponse;
+import com.Community.demo.payload.AnalyticsResponse.Bucket;
+import com.Community.demo.payload.DailyCount;
+import com.Community.demo.repository.AppointmentRepository;
+import com.Community.demo.repository.ConsultationRepository;
+import com.Community.demo.repository.ScreeningRepository;
+import com.Community.demo.services.AnalyticsService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.BiFunction;
+
+/**
+ * Histograms are built from per-day GROUP BY rows. Days before today never change except through
+ * a write, which evicts that day (AnalyticsCacheListener), so they are cached indefinitely; only
+ * today and any evicted or never-seen days are queried, in one range query per series.
+ * Weekly buckets are rolled up from the daily ones.
+ */
+@Service
+public class AnalyticsServiceImpl implements AnalyticsService {
+
+    private static final String UNKNOWN = "UNKNOWN";
+
+    private final AppointmentRepository appointmentRepository;
+    private final ConsultationRepository consultationRepository;
+    private final ScreeningRepository screeningRepository;
+    private final AnalyticsCache cache;
+
+    @Value("${analytics.default-days:30}")
+    private int defaultDays;
+
+    @Value("${analytics.max-days:731}")
+    private int maxDays;
+
+    public AnalyticsServiceImpl(AppointmentRepository appointmentRepository,
+                                ConsultationRepository consultationRepository,
+                                ScreeningRepository screeningRepository,
+                                AnalyticsCache cache) {
+        this.appointmentRepository = appointmentRepository;
+        this.consultationRepository = consultationRepository;
+        this.screeningRepository = screeningRepository;
+        this.cache = cache;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public AnalyticsResponse getAnalytics(LocalDate from, LocalDate to, String granularity) {
+        String unit = granularity == null ? "day" : granularity.toLowerCase();
+        if (!unit.equals("day") && !unit.equals("week")) {
+            throw new BadRequestException("granularity must be 'day' or 'week'");
+        }
+        LocalDate end = to != null ? to : LocalDate.now();
+        LocalDate start = from != null ? from : end.minusDays(Math.max(1, defaultDays) - 1L);
+        if (start.isAfter(end)) {
+            throw new BadRequestException("from must not be after to");
+        }
+        if (ChronoUnit.DAYS.between(start, end) >= maxDays) {
+            throw new BadRequestException("range must not exceed " + maxDays + " days");
+        }
+
+        boolean weekly = unit.equals("week");
+        return new AnalyticsResponse(unit, start, end,
+                buckets(daily(Series.APPOINTMENTS_BY_STATUS, start, end, appointmentRepository::countPerDayByStatus), weekly),
+                buckets(daily(Series.CONSULTATIONS_BY_MODE, start, end, consultationRepository::countPerDayByMode), weekly),
+                buckets(daily(Series.SCREENINGS, start, end, screeningRepository::countPerDay), weekly));
+    }
+
+    /** Per-day counts for [start, end]: cached closed days plus one query from the first missing day. */
+    private TreeMap<LocalDate, Map<String, Long>> daily(Series series, LocalDate start, LocalDate end,
+                                                       BiFunction<LocalDateTime, LocalDateTime, List<DailyCount>> query) {
+        LocalDate today = LocalDate.now();
+        TreeMap<LocalDate, Map<String, Long>> days = new TreeMap<>();
+        LocalDate firstMissing = null;
+        for (LocalDate d = start; !d.isAfter(end); d = d.plusDays(1)) {
+            Map<String, Long> cached = d.isBefore(today) ? cache.get(series, d) : null;
+            if (cached == null) {
+                firstMissing = d;
+                break;
+            }
+            days.put(d, cached);
+        }
+        if (firstMissing == null) {
+            return days;
+        }
+
+        long epoch = cache.epoch(series);
+        Map<LocalDate, Map<String, Long>> fetched = new HashMap<>();
+        for (DailyCount row : query.apply(firstMissing.atStartOfDay(), end.plusDays(1).atStartOfDay())) {
+            String key = row.key() == null ? UNKNOWN : row.key();
+            fetched.computeIfAbsent(row.day(), d -> new TreeMap<>()).merge(key, row.count(), Long::sum);
+        }
+        for (LocalDate d = firstMissing; !d.isAfter(end); d = d.plusDays(1)) {
+            Map<String, Long> counts = fetched.getOrDefault(d, Map.of());
+            days.put(d, counts);
+            if (d.isBefore(today)) {
+                cache.put(series, d, counts, epoch); // empty days are cached too
+            }
+        }
+        return days;
+    }
+
+    /** Turns the daily map into buckets; weeks start on Monday and the edge weeks may be partial. */
+    private static List<Bucket> buckets(TreeMap<LocalDate, Map<String, Long>> days, boolean weekly) {
+        TreeMap<LocalDate, Map<String, Long>> grouped = new TreeMap<>();
+        days.forEach((day, counts) -> {
+            LocalDate key = weekly ? day.with(DayOfWeek.MONDAY) : day;
+            Map<String, Long> bucket = grouped.computeIfAbsent(key, k -> new TreeMap<>());
+            counts.forEach((k, v) -> bucket.merge(k, v, Long::sum));
+        });
+        List<Bucket> out = new ArrayList<>(grouped.size());
+        grouped.forEach((start, counts) -> out.add(new Bucket(start, counts,
+                counts.values().stream().mapToLong(Long::longValue).sum())));
+        return out;
+    }
+}
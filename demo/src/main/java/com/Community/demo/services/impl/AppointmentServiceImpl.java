@@ -1,19 +1,44 @@
 package com.Community.demo.services.impl;
 
+import com.Community.demo.cache.DoctorSchedule;
+import com.Community.demo.cache.UpcomingIndex;
+import com.Community.demo.cache.UpcomingIndexes;
+import com.Community.demo.events.ListenerEffects;
+import com.Community.demo.events.OutboxEventType;
+import com.Community.demo.events.OutboxPublisher;
+import com.Community.demo.exception.BadRequestException;
+import com.Community.demo.exception.ConflictException;
+import com.Community.demo.metrics.EntityCounters;
+import com.Community.demo.metrics.EntityCounters.Counter;
 import com.Community.demo.model.Appointment;
+import com.Community.demo.model.Notification;
 import com.Community.demo.model.User;
+import com.Community.demo.payload.AppointmentRequest;
+import com.Community.demo.payload.BulkBookingResponse;
+import com.Community.demo.payload.UpcomingAppointment;
 import com.Community.demo.repository.AppointmentRepository;
 import com.Community.demo.repository.UserRepository;
 import com.Community.demo.services.AppointmentService;
 import com.Community.demo.services.NotificationService;
+import com.Community.demo.services.NotificationService.Delivery;
+import com.Community.demo.util.AfterCommit;
+import com.Community.demo.util.AppointmentStatuses;
+import com.Community.demo.util.DateTimes;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 @Service
 @Transactional
@@ -24,13 +49,37 @@ public class AppointmentServiceImpl implements AppointmentService {
     private final AppointmentRepository appointmentRepository;
     private final UserRepository userRepository;
     private final NotificationService notificationService;
+    private final UpcomingIndexes upcomingIndexes;
+    private final DoctorSchedule doctorSchedule;
+    private final EntityCounters entityCounters;
+    private final OutboxPublisher outboxPublisher;
+    private final ListenerEffects listenerEffects;
+
+    @Value("${appointments.bulk.max-items:1000}")
+    private int maxBulkItems;
+
+    @Value("${upcoming.default-horizon-hours:168}")
+    private int defaultHorizonHours;
+
+    @Value("${upcoming.max-limit:500}")
+    private int maxUpcomingLimit;
 
     public AppointmentServiceImpl(AppointmentRepository appointmentRepository,
                                   UserRepository userRepository,
-                                  NotificationService notificationService) {
+                                  NotificationService notificationService,
+                                  UpcomingIndexes upcomingIndexes,
+                                  DoctorSchedule doctorSchedule,
+                                  EntityCounters entityCounters,
+                                  OutboxPublisher outboxPublisher,
+                                  ListenerEffects listenerEffects) {
         this.appointmentRepository = appointmentRepository;
         this.userRepository = userRepository;
         this.notificationService = notificationService;
+        this.upcomingIndexes = upcomingIndexes;
+        this.doctorSchedule = doctorSchedule;
+        this.entityCounters = entityCounters;
+        this.outboxPublisher = outboxPublisher;
+        this.listenerEffects = listenerEffects;
     }
 
     @Override
@@ -41,34 +90,117 @@ public class AppointmentServiceImpl implements AppointmentService {
         if (appointment.getScheduledAt() == null) {
             appointment.setScheduledAt(LocalDateTime.now().plusDays(1));
         }
+        reserveSlot(appointment.getDoctor(), appointment.getScheduledAt(), null);
 
         Appointment saved = appointmentRepository.save(appointment);
         log.info("Appointment saved, id={}", saved.getId());
 
-        try {
-            Long patientId = null;
-            User patient = saved.getPatient();
-            if (patient != null) {
-                patientId = patient.getId();
+        // the notification itself is written by OutboxDispatcher after this commits
+        User patient = saved.getPatient();
+        if (patient != null && patient.getId() != null) {
+            Map<String, Object> payload = new HashMap<>();
+            payload.put("patientId", patient.getId());
+            payload.put("title", saved.getTitle());
+            payload.put("scheduledAt", String.valueOf(saved.getScheduledAt()));
+            outboxPublisher.append(OutboxEventType.APPOINTMENT_BOOKED, payload);
+        } else {
+            log.debug("No patient info found on appointment id={}, skipping notification.", saved.getId());
+        }
+
+        return saved;
+    }
+
+    /**
+     * Validates every item in one pass (one user-id lookup for the whole request, slot checks
+     * against DoctorSchedule), then inserts the valid ones and their notifications in JDBC
+     * batches inside a single transaction. Invalid items are reported, not fatal.
+     */
+    @Override
+    public BulkBookingResponse bookBulk(List<AppointmentRequest> requests) {
+        if (requests == null || requests.isEmpty()) {
+            throw new BadRequestException("At least one appointment is required");
+        }
+        if (requests.size() > maxBulkItems) {
+            throw new BadRequestException("At most " + maxBulkItems + " appointments per request");
+        }
+
+        Set<Long> userIds = new HashSet<>();
+        for (AppointmentRequest r : requests) {
+            if (r == null) continue;
+            if (r.getPatientId() != null) userIds.add(r.getPatientId());
+            if (r.getDoctorId() != null) userIds.add(r.getDoctorId());
+        }
+        Set<Long> existing = userIds.isEmpty() ? Set.of() : new HashSet<>(userRepository.findExistingIds(userIds));
+
+        String[] errors = new String[requests.size()];
+        List<Appointment> accepted = new ArrayList<>();
+        List<Integer> acceptedIndex = new ArrayList<>();
+        for (int i = 0; i < requests.size(); i++) {
+            try {
+                Appointment a = toAppointment(requests.get(i), existing);
+                reserveSlot(a.getDoctor(), a.getScheduledAt(), null);
+                accepted.add(a);
+                acceptedIndex.add(i);
+            } catch (BadRequestException | ConflictException ex) {
+                errors[i] = ex.getMessage();
             }
+        }
 
-            if (patientId != null) {
-                String title = "Appointment booked";
-                String msg = "Your appointment '" +
-                        (saved.getTitle() == null ? "Appointment" : saved.getTitle()) +
-                        "' is scheduled at " + saved.getScheduledAt();
+        appointmentRepository.insertBatch(accepted);
+        // a campaign can book thousands at once; the flusher writes their notifications
+        notificationService.send(accepted.stream()
+                .map(a -> bookedNotification(a.getPatient().getId(), a))
+                .toList(), Delivery.WRITE_BEHIND);
+        afterBatchInsert(accepted);
 
-                notificationService.createNotification(patientId, title, msg);
-                log.info("Notification created for userId={}", patientId);
+        List<BulkBookingResponse.Item> results = new ArrayList<>(requests.size());
+        int next = 0;
+        for (int i = 0; i < requests.size(); i++) {
+            if (errors[i] != null) {
+                results.add(new BulkBookingResponse.Item(i, null, errors[i]));
             } else {
-                log.debug("No patient info found on appointment id={}, skipping notification.", saved.getId());
+                results.add(new BulkBookingResponse.Item(i, accepted.get(next++).getId(), null));
             }
-        } catch (Exception ex) {
-            log.warn("Failed to create notification for appointment id={}, error={}",
-                    saved.getId(), ex.getMessage());
         }
+        log.info("Bulk booking: {} created, {} rejected", accepted.size(), requests.size() - accepted.size());
+        return new BulkBookingResponse(accepted.size(), requests.size() - accepted.size(), results);
+    }
 
-        return saved;
+    private Appointment toAppointment(AppointmentRequest r, Set<Long> existingUserIds) {
+        if (r == null) throw new BadRequestException("Empty item");
+        if (r.getPatientId() == null || !existingUserIds.contains(r.getPatientId())) {
+            throw new BadRequestException("Patient not found");
+        }
+        if (r.getDoctorId() != null && !existingUserIds.contains(r.getDoctorId())) {
+            throw new BadRequestException("Doctor not found");
+        }
+        LocalDateTime scheduledAt = DateTimes.parseScheduledAt(r.getScheduledAt());
+        return Appointment.builder()
+                .title(r.getTitle())
+                .scheduledAt(scheduledAt != null ? scheduledAt : LocalDateTime.now().plusDays(1))
+                .notes(r.getNotes())
+                .status(r.getStatus() != null ? r.getStatus() : "SCHEDULED")
+                .patient(userRepository.getReferenceById(r.getPatientId()))
+                .doctor(r.getDoctorId() == null ? null : userRepository.getReferenceById(r.getDoctorId()))
+                .build();
+    }
+
+    private static Notification bookedNotification(Long patientId, Appointment a) {
+        String msg = "Your appointment '" +
+                (a.getTitle() == null ? "Appointment" : a.getTitle()) +
+                "' is scheduled at " + a.getScheduledAt();
+        return new Notification(patientId, "Appointment booked", msg);
+    }
+
+    /** Batch inserts skip the entity listeners, so apply what they would have done. */
+    private void afterBatchInsert(List<Appointment> inserted) {
+        if (inserted.isEmpty()) return;
+        List<UpcomingAppointment> rows = inserted.stream()
+                .map(a -> new UpcomingAppointment(a.getId(), a.getTitle(), a.getScheduledAt(), a.getStatus(),
+                        a.getPatient().getId(), a.getDoctor() == null ? null : a.getDoctor().getId()))
+                .toList();
+        AfterCommit.run(() -> entityCounters.add(Counter.APPOINTMENTS, rows.size()));
+        listenerEffects.appointmentsWritten(rows);
     }
 
     @Override
@@ -90,10 +222,22 @@ public class AppointmentServiceImpl implements AppointmentService {
 
     @Override
     @Transactional(readOnly = true)
-    public List<Appointment> getUpcomingAppointments() {
-        return appointmentRepository.findAll().stream()
-                .filter(a -> a.getScheduledAt() != null && a.getScheduledAt().isAfter(LocalDateTime.now()))
-                .toList();
+    public List<UpcomingAppointment> getUpcomingAppointments(Long doctorId, Long patientId,
+                                                             Integer horizonHours, Integer limit) {
+        int hours = horizonHours == null ? defaultHorizonHours : horizonHours;
+        int size = limit == null ? maxUpcomingLimit : limit;
+        if (hours < 1) throw new BadRequestException("hours must be positive");
+        if (size < 1 || size > maxUpcomingLimit) {
+            throw new BadRequestException("limit must be between 1 and " + maxUpcomingLimit);
+        }
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime until = now.plusHours(hours);
+
+        UpcomingIndex<UpcomingAppointment> index = upcomingIndexes.appointments();
+        if (upcomingIndexes.isEnabled() && index.isReady()) {
+            return index.range(now, until, doctorId, patientId, size);
+        }
+        return appointmentRepository.findUpcoming(now, until, doctorId, patientId, Limit.of(size));
     }
 
     @Override
@@ -103,6 +247,14 @@ public class AppointmentServiceImpl implements AppointmentService {
         if (opt.isEmpty()) return Optional.empty();
 
         Appointment exist = opt.get();
+        // clients echo the version they read; the @Version check at flush covers the rest
+        if (appointment.getVersion() != null && !appointment.getVersion().equals(exist.getVersion())) {
+            throw new ConflictException("Appointment " + exist.getId() + " was changed by someone else; reload and retry");
+        }
+        if (appointment.getScheduledAt() != null
+                && !appointment.getScheduledAt().equals(exist.getScheduledAt())) {
+            reserveSlot(exist.getDoctor(), appointment.getScheduledAt(), exist.getId());
+        }
         exist.setTitle(appointment.getTitle());
         exist.setScheduledAt(appointment.getScheduledAt());
         exist.setNotes(appointment.getNotes());
@@ -115,6 +267,27 @@ public class AppointmentServiceImpl implements AppointmentService {
         return Optional.of(updated);
     }
 
+    @Override
+    public Optional<UpcomingAppointment> updateStatus(Long id, String status) {
+        String to = status == null ? null : status.trim().toUpperCase();
+        if (appointmentRepository.transitionStatus(id, AppointmentStatuses.allowedFrom(to), to) == 0) {
+            if (!appointmentRepository.existsById(id)) return Optional.empty();
+            throw new ConflictException("Appointment " + id + " cannot move to " + to + " from its current status");
+        }
+        UpcomingAppointment row = appointmentRepository.findRow(id);
+        listenerEffects.appointmentsWritten(List.of(row));
+        log.info("Appointment id={} moved to {}", id, to);
+        return Optional.of(row);
+    }
+
+    /** Throws ConflictException (409) if the doctor already has a booking overlapping the slot. */
+    private void reserveSlot(User doctor, LocalDateTime at, Long appointmentId) {
+        if (doctor == null || doctor.getId() == null || at == null) return;
+        Long doctorId = doctor.getId();
+        doctorSchedule.reserve(doctorId, at, appointmentId, () -> appointmentRepository.findUpcoming(
+                LocalDateTime.now().minusDays(1), null, doctorId, null, Limit.unlimited()));
+    }
+
     @Override
     public boolean deleteAppointment(String idStr) {
         try {
@@ -103,6 +103,9 @@ public class AuthServiceImpl implements AuthService {
         if (userUpdates.getName() != null) current.setName(userUpdates.getName());
         if (userUpdates.getPhone() != null) current.setPhone(userUpdates.getPhone());
         if (userUpdates.getAddress() != null) current.setAddress(userUpdates.getAddress());
+        if (userUpdates.getSpecialty() != null && current.getRoles().contains("ROLE_DOCTOR")) {
+            current.setSpecialty(userUpdates.getSpecialty().isBlank() ? null : userUpdates.getSpecialty().trim());
+        }
         return userRepository.save(current);
     }
 
@@ -1,19 +1,41 @@
 package com.Community.demo.services.impl;
 
+import com.Community.demo.cache.UpcomingIndex;
+import com.Community.demo.cache.UpcomingIndexes;
+import com.Community.demo.events.ListenerEffects;
+import com.Community.demo.events.OutboxEventType;
+import com.Community.demo.events.OutboxPublisher;
+import com.Community.demo.exception.BadRequestException;
+import com.Community.demo.exception.ConflictException;
+import com.Community.demo.metrics.ConsultationMetrics;
+import com.Community.demo.metrics.ConsultationMetrics.Metric;
+import com.Community.demo.metrics.EntityCounters;
+import com.Community.demo.metrics.EntityCounters.Counter;
 import com.Community.demo.model.Appointment;
 import com.Community.demo.model.ConsultationSession;
+import com.Community.demo.payload.UpcomingAppointment;
+import com.Community.demo.payload.UpcomingSession;
 import com.Community.demo.repository.AppointmentRepository;
 import com.Community.demo.repository.ConsultationRepository;
 import com.Community.demo.repository.UserRepository;
 import com.Community.demo.services.ConsultationService;
-import com.Community.demo.services.NotificationService;
+import com.Community.demo.util.AfterCommit;
+import com.Community.demo.util.AppointmentStatuses;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 
 /**
@@ -30,16 +52,34 @@ public class ConsultationServiceImpl implements ConsultationService {
     private final ConsultationRepository consultationRepository;
     private final AppointmentRepository appointmentRepository;
     private final UserRepository userRepository;
-    private final NotificationService notificationService;
+    private final OutboxPublisher outboxPublisher;
+    private final EntityCounters entityCounters;
+    private final UpcomingIndexes upcomingIndexes;
+    private final ListenerEffects listenerEffects;
+    private final ConsultationMetrics consultationMetrics;
+
+    @Value("${upcoming.default-horizon-hours:168}")
+    private int defaultHorizonHours;
+
+    @Value("${upcoming.max-limit:500}")
+    private int maxUpcomingLimit;
 
     public ConsultationServiceImpl(ConsultationRepository consultationRepository,
                                    AppointmentRepository appointmentRepository,
                                    UserRepository userRepository,
-                                   NotificationService notificationService) {
+                                   OutboxPublisher outboxPublisher,
+                                   EntityCounters entityCounters,
+                                   UpcomingIndexes upcomingIndexes,
+                                   ListenerEffects listenerEffects,
+                                   ConsultationMetrics consultationMetrics) {
         this.consultationRepository = consultationRepository;
         this.appointmentRepository = appointmentRepository;
         this.userRepository = userRepository;
-        this.notificationService = notificationService;
+        this.outboxPublisher = outboxPublisher;
+        this.entityCounters = entityCounters;
+        this.upcomingIndexes = upcomingIndexes;
+        this.listenerEffects = listenerEffects;
+        this.consultationMetrics = consultationMetrics;
     }
 
     @Override
@@ -70,86 +110,126 @@ public class ConsultationServiceImpl implements ConsultationService {
 
     @Override
     @Transactional(readOnly = true)
-    public List<ConsultationSession> getUpcomingSessions() {
+    public List<UpcomingSession> getUpcomingSessions(Long doctorId, Long patientId,
+                                                     Integer horizonHours, Integer limit) {
+        int hours = horizonHours == null ? defaultHorizonHours : horizonHours;
+        int size = limit == null ? maxUpcomingLimit : limit;
+        if (hours < 1) throw new BadRequestException("hours must be positive");
+        if (size < 1 || size > maxUpcomingLimit) {
+            throw new BadRequestException("limit must be between 1 and " + maxUpcomingLimit);
+        }
         LocalDateTime now = LocalDateTime.now();
-        return consultationRepository.findAll().stream()
-                .filter(s -> s.getSessionStart() != null && s.getSessionStart().isAfter(now))
-                .toList();
+        LocalDateTime until = now.plusHours(hours);
+
+        UpcomingIndex<UpcomingSession> index = upcomingIndexes.sessions();
+        if (upcomingIndexes.isEnabled() && index.isReady()) {
+            return index.range(now, until, doctorId, patientId, size);
+        }
+        return consultationRepository.findUpcoming(now, until, doctorId, patientId, Limit.of(size));
     }
 
+    /**
+     * Start and end are single conditional UPDATEs (no read, no row lock held across a round
+     * trip); the row is read back afterwards for the response. A running session cannot be
+     * started again, and an ended one cannot be started or ended again: that is a 409, not a
+     * silent overwrite of the start time.
+     */
     @Override
     public Optional<ConsultationSession> startSession(Long id) {
-        Optional<ConsultationSession> opt = consultationRepository.findById(id);
-        if (opt.isEmpty()) return Optional.empty();
-
-        ConsultationSession session = opt.get();
-        session.setSessionStart(LocalDateTime.now());
-        ConsultationSession saved = consultationRepository.save(session);
-
-        // notify patient & doctor (non-blocking)
-        try {
-            Long patientId = session.getPatient() != null ? session.getPatient().getId() : null;
-            Long doctorId  = session.getDoctor()  != null ? session.getDoctor().getId()  : null;
-
-            String title = "Consultation started";
-            String msg = "Your consultation (id=" + saved.getId() + ") has started.";
-
-            if (patientId != null) {
-                notificationService.createNotification(patientId, title, msg);
-            }
-            if (doctorId != null) {
-                notificationService.createNotification(doctorId, title,
-                        "Consultation with patient id=" + (patientId != null ? patientId : "N/A") + " has started.");
-            }
-        } catch (Exception ex) {
-            log.warn("Failed to create notifications for session start id={}, error={}", saved.getId(), ex.getMessage());
+        long startedNanos = System.nanoTime();
+        if (consultationRepository.markStarted(id, LocalDateTime.now()) == 0) {
+            return notUpdated(id, "started");
         }
+        boolean appointmentMoved = moveLinkedAppointment(id, AppointmentStatuses.IN_PROGRESS);
+        ConsultationSession saved = consultationRepository.findById(id).orElseThrow();
+        afterTransition(saved, appointmentMoved);
+        recordStarted(saved, startedNanos);
+
+        publishSessionEvent(OutboxEventType.CONSULTATION_STARTED, saved);
 
         return Optional.of(saved);
     }
 
     @Override
     public Optional<ConsultationSession> endSession(Long id) {
-        Optional<ConsultationSession> opt = consultationRepository.findById(id);
-        if (opt.isEmpty()) return Optional.empty();
+        long startedNanos = System.nanoTime();
+        if (consultationRepository.markEnded(id, LocalDateTime.now()) == 0) {
+            return notUpdated(id, "ended");
+        }
+        boolean appointmentMoved = moveLinkedAppointment(id, AppointmentStatuses.COMPLETED);
+        ConsultationSession saved = consultationRepository.findById(id).orElseThrow();
+        AfterCommit.run(() -> entityCounters.add(Counter.ACTIVE_SESSIONS, -1));
+        afterTransition(saved, appointmentMoved);
+        recordEnded(saved, startedNanos);
 
-        ConsultationSession session = opt.get();
-        session.setSessionEnd(LocalDateTime.now());
-        ConsultationSession saved = consultationRepository.save(session);
+        publishSessionEvent(OutboxEventType.CONSULTATION_ENDED, saved);
 
-        // notify patient & doctor about session end
-        try {
-            Long patientId = session.getPatient() != null ? session.getPatient().getId() : null;
-            Long doctorId  = session.getDoctor()  != null ? session.getDoctor().getId()  : null;
-
-            String title = "Consultation ended";
-            String msg = "Your consultation (id=" + saved.getId() + ") has ended.";
-
-            if (patientId != null) {
-                notificationService.createNotification(patientId, title, msg);
-            }
-            if (doctorId != null) {
-                notificationService.createNotification(doctorId, title,
-                        "Consultation with patient id=" + (patientId != null ? patientId : "N/A") + " has ended.");
-            }
-        } catch (Exception ex) {
-            log.warn("Failed to create notifications for session end id={}, error={}", saved.getId(), ex.getMessage());
-        }
+        return Optional.of(saved);
+    }
+
+    private Optional<ConsultationSession> notUpdated(Long id, String action) {
+        Optional<ConsultationSession> current = consultationRepository.findById(id);
+        if (current.isEmpty()) return Optional.empty();
+        String state = current.get().getSessionEnd() != null ? "ended" : "started";
+        throw new ConflictException("Consultation session " + id + " has already " + state + " and cannot be " + action);
+    }
+
+    /**
+     * Runs before the session is read back: the update clears the persistence context, and the
+     * session returned to the caller must stay managed. A linked appointment that already moved
+     * past {@code to} (or none at all) is left as it is.
+     */
+    private boolean moveLinkedAppointment(Long sessionId, String to) {
+        int moved = appointmentRepository.transitionLinkedStatus(sessionId, AppointmentStatuses.allowedFrom(to), to);
+        if (moved == 0) log.debug("No linked appointment moved to {} for consultation id={}", to, sessionId);
+        return moved > 0;
+    }
 
-        // Optionally: if linked appointment exists, mark appointment as COMPLETED
-        try {
-            Appointment appt = saved.getAppointment();
-            if (appt != null && appt.getId() != null) {
-                appointmentRepository.findById(appt.getId()).ifPresent(a -> {
-                    a.setStatus("COMPLETED");
-                    appointmentRepository.save(a);
-                });
-            }
-        } catch (Exception ex) {
-            log.debug("Unable to auto-update linked appointment for consultation id={}", saved.getId());
+    /** The conditional updates skip the entity listeners; apply their effects from the re-read rows. */
+    private void afterTransition(ConsultationSession saved, boolean appointmentMoved) {
+        listenerEffects.sessionWritten(saved);
+        if (appointmentMoved && saved.getAppointment() != null) {
+            UpcomingAppointment row = appointmentRepository.findRow(saved.getAppointment().getId());
+            listenerEffects.appointmentsWritten(List.of(row));
         }
+    }
 
-        return Optional.of(saved);
+    /** Timings go into ConsultationMetrics once the transition has committed. */
+    private void recordStarted(ConsultationSession s, long startedNanos) {
+        Long doctorId = s.getDoctor() != null ? s.getDoctor().getId() : null;
+        String mode = s.getMode();
+        Appointment appointment = s.getAppointment();
+        LocalDateTime scheduledAt = appointment != null ? appointment.getScheduledAt() : null;
+        long delaySeconds = scheduledAt == null || s.getSessionStart() == null
+                ? -1 : Math.max(0, Duration.between(scheduledAt, s.getSessionStart()).toSeconds());
+        AfterCommit.run(() -> {
+            consultationMetrics.record(Metric.START_LATENCY, doctorId, mode, micros(startedNanos));
+            if (delaySeconds >= 0) consultationMetrics.record(Metric.START_DELAY, doctorId, mode, delaySeconds);
+        });
+    }
+
+    private void recordEnded(ConsultationSession s, long startedNanos) {
+        Long doctorId = s.getDoctor() != null ? s.getDoctor().getId() : null;
+        String mode = s.getMode();
+        long durationSeconds = s.getSessionStart() == null || s.getSessionEnd() == null
+                ? -1 : Math.max(0, Duration.between(s.getSessionStart(), s.getSessionEnd()).toSeconds());
+        AfterCommit.run(() -> {
+            consultationMetrics.record(Metric.END_LATENCY, doctorId, mode, micros(startedNanos));
+            if (durationSeconds >= 0) consultationMetrics.record(Metric.DURATION, doctorId, mode, durationSeconds);
+        });
+    }
+
+    private static long micros(long startedNanos) {
+        return (System.nanoTime() - startedNanos) / 1_000;
+    }
+
+    /** Patient and doctor notifications are fanned out by OutboxDispatcher after commit. */
+    private void publishSessionEvent(OutboxEventType type, ConsultationSession session) {
+        Map<String, Object> payload = new HashMap<>();
+        payload.put("sessionId", session.getId());
+        payload.put("patientId", session.getPatient() != null ? session.getPatient().getId() : null);
+        payload.put("doctorId", session.getDoctor() != null ? session.getDoctor().getId() : null);
+        outboxPublisher.append(type, payload);
     }
 
     @Override
@@ -159,6 +239,13 @@ public class ConsultationServiceImpl implements ConsultationService {
         if (opt.isEmpty()) return Optional.empty();
 
         ConsultationSession exist = opt.get();
+        // clients echo the version they read; the @Version check at flush covers the rest
+        if (session.getVersion() != null && !session.getVersion().equals(exist.getVersion())) {
+            throw new ConflictException("Consultation session " + exist.getId() + " was changed by someone else; reload and retry");
+        }
+        if (exist.getSessionEnd() == null && session.getSessionEnd() != null) {
+            AfterCommit.run(() -> entityCounters.add(Counter.ACTIVE_SESSIONS, -1));
+        }
         if (session.getSessionStart() != null) exist.setSessionStart(session.getSessionStart());
         if (session.getSessionEnd() != null)   exist.setSessionEnd(session.getSessionEnd());
         if (session.getNotes() != null)        exist.setNotes(session.getNotes());
@@ -173,6 +260,72 @@ public class ConsultationServiceImpl implements ConsultationService {
         return Optional.of(updated);
     }
 
+    /**
+     * One batch of the stale-session sweep. The claim locks the rows (SKIP LOCKED), so every
+     * claimed session is still open when the batch UPDATE runs, and a concurrent endSession
+     * waits and then gets its usual 409. Linked appointments move to COMPLETED in one more
+     * UPDATE; the end notifications go to the outbox as one JDBC batch.
+     */
+    @Override
+    public int closeStaleSessions(LocalDateTime startedBefore, LocalDateTime createdBefore, int limit) {
+        List<ConsultationSession> stale = new ArrayList<>(
+                consultationRepository.claimStaleStarted(startedBefore, Limit.of(limit)));
+        if (stale.size() < limit) {
+            stale.addAll(consultationRepository.claimStaleUnstarted(createdBefore, Limit.of(limit - stale.size())));
+        }
+        int closed = close(stale);
+        if (closed > 0) log.info("Closed {} stale consultation sessions", closed);
+        return closed;
+    }
+
+    @Override
+    public int closeUnstartedSessions(Collection<Long> ids) {
+        if (ids.isEmpty()) return 0;
+        int closed = close(consultationRepository.claimUnstarted(ids));
+        if (closed > 0) log.info("Closed {} consultation sessions that were never started", closed);
+        return closed;
+    }
+
+    /** Ends the claimed sessions and completes their appointments, with the usual side effects. */
+    private int close(List<ConsultationSession> stale) {
+        if (stale.isEmpty()) return 0;
+
+        LocalDateTime now = LocalDateTime.now();
+        List<Long> ids = stale.stream().map(ConsultationSession::getId).toList();
+        List<Long> appointmentIds = stale.stream()
+                .map(ConsultationSession::getAppointment)
+                .filter(Objects::nonNull)
+                .map(Appointment::getId)
+                .distinct()
+                .toList();
+
+        int closed = consultationRepository.markAllEnded(ids, now);
+        if (!appointmentIds.isEmpty()) {
+            appointmentRepository.transitionStatuses(appointmentIds,
+                    AppointmentStatuses.allowedFrom(AppointmentStatuses.COMPLETED), AppointmentStatuses.COMPLETED);
+        }
+
+        // the claimed entities are detached by the updates; they only feed the effects below
+        List<Map<String, Object>> events = new ArrayList<>(stale.size());
+        for (ConsultationSession s : stale) {
+            s.setSessionEnd(now);
+            listenerEffects.sessionWritten(s);
+            Map<String, Object> payload = new HashMap<>();
+            payload.put("sessionId", s.getId());
+            payload.put("patientId", s.getPatient() != null ? s.getPatient().getId() : null);
+            payload.put("doctorId", s.getDoctor() != null ? s.getDoctor().getId() : null);
+            events.add(payload);
+        }
+        if (!appointmentIds.isEmpty()) {
+            listenerEffects.appointmentsWritten(appointmentRepository.findRows(appointmentIds).stream()
+                    .filter(row -> AppointmentStatuses.COMPLETED.equals(row.status()))
+                    .toList());
+        }
+        outboxPublisher.appendAll(OutboxEventType.CONSULTATION_ENDED, events);
+        AfterCommit.run(() -> entityCounters.add(Counter.ACTIVE_SESSIONS, -closed));
+        return closed;
+    }
+
     @Override
     public boolean deleteSession(Long id) {
         if (!consultationRepository.existsById(id)) return false;
@@ -0,0 +1,269 @@
+package com.Community.demo.services.impl;
+
+import com.Community.demo.payload.AppointmentExportRow;
+import com.Community.demo.payload.EncounterExportRow;
+import com.Community.demo.payload.PrescriptionExportRow;
+import com.Community.demo.payload.ScreeningExportRow;
+import com.Community.demo.payload.VitalExportRow;
+import com.Community.demo.repository.AppointmentRepository;
+import com.Community.demo.repository.EncounterRepository;
+import com.Community.demo.repository.PrescriptionRepository;
+import com.Community.demo.repository.ScreeningRepository;
+import com.Community.demo.repository.VitalRepository;
+import jakarta.persistence.EntityManager;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.LongConsumer;
+import java.util.function.ToLongFunction;
+import java.util.stream.Stream;
+
+/**
+ * Writes one table as CSV (header + rows) to a Writer, reading flat projections only.
+ *
+ * Appointments are read from a forward-only cursor and need an open transaction; the other
+ * tables are read in id-ordered keyset chunks with the persistence context cleared in between.
+ * Used by the single-table downloads and by the ZIP bundle in AdminServiceImpl.
+ */
+@Component
+public class CsvTableExporter {
+
+    /** Writes the rows of one table and returns how many were written. */
+    @FunctionalInterface
+    public interface TableWriter {
+        long write(Writer out) throws IOException;
+    }
+
+    @FunctionalInterface
+    private interface ChunkQuery<T> {
+        List<T> fetch(long afterId, Limit limit);
+    }
+
+    @FunctionalInterface
+    private interface RowFormatter<T> {
+        void format(T row, Writer out) throws IOException;
+    }
+
+    public static final String APPOINTMENTS_HEADER = "id,title,scheduledAt,status,patientId,doctorId\n";
+    public static final String SCREENINGS_HEADER =
+            "id,userId,takenAt,systolic,diastolic,glucose,glucoseType,heightCm,weightKg,bmi\n";
+    private static final String VITALS_HEADER =
+            "id,patientId,recordedById,measuredAt,systolic,diastolic,glucoseMgdl,glucoseType,heightCm,weightKg,bmi\n";
+    private static final String ENCOUNTERS_HEADER = "id,patientId,doctorId,createdAt,notes\n";
+    private static final String PRESCRIPTIONS_HEADER =
+            "id,patientId,doctorId,medication,dose,frequency,days,createdAt\n";
+
+    private final AppointmentRepository appointmentRepository;
+    private final ScreeningRepository screeningRepository;
+    private final VitalRepository vitalRepository;
+    private final EncounterRepository encounterRepository;
+    private final PrescriptionRepository prescriptionRepository;
+    private final EntityManager entityManager;
+
+    @Value("${export.chunk-size:5000}")
+    private int chunkSize;
+
+    @Value("${export.screenings.chunk-size:${export.chunk-size:5000}}")
+    private int screeningChunkSize;
+
+    public CsvTableExporter(AppointmentRepository appointmentRepository,
+                            ScreeningRepository screeningRepository,
+                            VitalRepository vitalRepository,
+                            EncounterRepository encounterRepository,
+                            PrescriptionRepository prescriptionRepository,
+                            EntityManager entityManager) {
+        this.appointmentRepository = appointmentRepository;
+        this.screeningRepository = screeningRepository;
+        this.vitalRepository = vitalRepository;
+        this.encounterRepository = encounterRepository;
+        this.prescriptionRepository = prescriptionRepository;
+        this.entityManager = entityManager;
+    }
+
+    /** All exportable tables by name, in bundle order. Each writer emits its own header line. */
+    public Map<String, TableWriter> tables() {
+        Map<String, TableWriter> tables = new LinkedHashMap<>();
+        tables.put("appointments", out -> { out.write(APPOINTMENTS_HEADER); return writeAppointmentRows(out); });
+        tables.put("screenings", out -> { out.write(SCREENINGS_HEADER); return writeScreeningRows(out); });
+        tables.put("vitals", out -> { out.write(VITALS_HEADER); return writeVitalRows(out); });
+        tables.put("encounters", out -> { out.write(ENCOUNTERS_HEADER); return writeEncounterRows(out); });
+        tables.put("prescriptions", out -> { out.write(PRESCRIPTIONS_HEADER); return writePrescriptionRows(out); });
+        return tables;
+    }
+
+    /** Streams appointment rows from a DB cursor; must run inside a read-only transaction. */
+    public long writeAppointmentRows(Writer out) throws IOException {
+        long written = 0;
+        try (Stream<AppointmentExportRow> rows = appointmentRepository.streamExportRows()) {
+            Iterator<AppointmentExportRow> it = rows.iterator();
+            while (it.hasNext()) {
+                AppointmentExportRow a = it.next();
+                out.write(String.valueOf(a.id()));
+                out.write(',');
+                out.write(safe(a.title()));
+                out.write(',');
+                out.write(a.scheduledAt() == null ? "" : a.scheduledAt().toString());
+                out.write(',');
+                out.write(safe(a.status()));
+                out.write(',');
+                out.write(a.patientId() == null ? "" : a.patientId().toString());
+                out.write(',');
+                out.write(a.doctorId() == null ? "" : a.doctorId().toString());
+                out.write('\n');
+                written++;
+            }
+        }
+        return written;
+    }
+
+    public long writeScreeningRows(Writer out) throws IOException {
+        return writeScreeningRows(out, rows -> { });
+    }
+
+    /** As {@link #writeScreeningRows(Writer)}, reporting the row count of each chunk once it is written. */
+    public long writeScreeningRows(Writer out, LongConsumer onChunk) throws IOException {
+        return writeChunked(out, screeningChunkSize,
+                (afterId, limit) -> screeningRepository.findExportChunk(afterId, limit),
+                ScreeningExportRow::id,
+                (s, w) -> {
+                    w.write(String.valueOf(s.id()));
+                    w.write(',');
+                    w.write(s.userId() == null ? "" : s.userId().toString());
+                    w.write(',');
+                    w.write(s.takenAt() == null ? "" : s.takenAt().toString());
+                    w.write(',');
+                    w.write(String.valueOf(s.systolic()));
+                    w.write(',');
+                    w.write(String.valueOf(s.diastolic()));
+                    w.write(',');
+                    w.write(String.valueOf(s.glucose()));
+                    w.write(',');
+                    w.write(safe(s.glucoseType()));
+                    w.write(',');
+                    w.write(String.valueOf(s.heightCm()));
+                    w.write(',');
+                    w.write(String.valueOf(s.weightKg()));
+                    w.write(',');
+                    w.write(String.valueOf(s.bmi()));
+                    w.write('\n');
+                }, onChunk);
+    }
+
+    public long writeVitalRows(Writer out) throws IOException {
+        return writeChunked(out, chunkSize,
+                (afterId, limit) -> vitalRepository.findExportChunk(afterId, limit),
+                VitalExportRow::id,
+                (v, w) -> {
+                    w.write(String.valueOf(v.id()));
+                    w.write(',');
+                    w.write(v.patientId() == null ? "" : v.patientId().toString());
+                    w.write(',');
+                    w.write(v.recordedById() == null ? "" : v.recordedById().toString());
+                    w.write(',');
+                    w.write(v.measuredAt() == null ? "" : v.measuredAt().toString());
+                    w.write(',');
+                    w.write(String.valueOf(v.systolic()));
+                    w.write(',');
+                    w.write(String.valueOf(v.diastolic()));
+                    w.write(',');
+                    w.write(String.valueOf(v.glucoseMgdl()));
+                    w.write(',');
+                    w.write(safe(v.glucoseType()));
+                    w.write(',');
+                    w.write(String.valueOf(v.heightCm()));
+                    w.write(',');
+                    w.write(String.valueOf(v.weightKg()));
+                    w.write(',');
+                    w.write(String.valueOf(v.bmi()));
+                    w.write('\n');
+                });
+    }
+
+    public long writeEncounterRows(Writer out) throws IOException {
+        return writeChunked(out, chunkSize,
+                (afterId, limit) -> encounterRepository.findExportChunk(afterId, limit),
+                EncounterExportRow::id,
+                (e, w) -> {
+                    w.write(String.valueOf(e.id()));
+                    w.write(',');
+                    w.write(e.patientId() == null ? "" : e.patientId().toString());
+                    w.write(',');
+                    w.write(e.doctorId() == null ? "" : e.doctorId().toString());
+                    w.write(',');
+                    w.write(e.createdAt() == null ? "" : e.createdAt().toString());
+                    w.write(',');
+                    w.write(safe(e.notes()));
+                    w.write('\n');
+                });
+    }
+
+    public long writePrescriptionRows(Writer out) throws IOException {
+        return writeChunked(out, chunkSize,
+                (afterId, limit) -> prescriptionRepository.findExportChunk(afterId, limit),
+                PrescriptionExportRow::id,
+                (p, w) -> {
+                    w.write(String.valueOf(p.id()));
+                    w.write(',');
+                    w.write(p.patientId() == null ? "" : p.patientId().toString());
+                    w.write(',');
+                    w.write(p.doctorId() == null ? "" : p.doctorId().toString());
+                    w.write(',');
+                    w.write(safe(p.medication()));
+                    w.write(',');
+                    w.write(safe(p.dose()));
+                    w.write(',');
+                    w.write(safe(p.frequency()));
+                    w.write(',');
+                    w.write(String.valueOf(p.days()));
+                    w.write(',');
+                    w.write(p.createdAt() == null ? "" : p.createdAt().toString());
+                    w.write('\n');
+                });
+    }
+
+    /**
+     * Keyset loop shared by the chunked tables. Each chunk is a short query; the persistence
+     * context is cleared after every chunk so a long export never grows the EntityManager.
+     */
+    private <T> long writeChunked(Writer out, int size,
+                                  ChunkQuery<T> query,
+                                  ToLongFunction<T> idOf,
+                                  RowFormatter<T> formatter) throws IOException {
+        return writeChunked(out, size, query, idOf, formatter, rows -> { });
+    }
+
+    private <T> long writeChunked(Writer out, int size,
+                                  ChunkQuery<T> query,
+                                  ToLongFunction<T> idOf,
+                                  RowFormatter<T> formatter,
+                                  LongConsumer onChunk) throws IOException {
+        int limit = Math.max(1, size);
+        long written = 0;
+        long afterId = 0;
+        while (true) {
+            List<T> chunk = query.fetch(afterId, Limit.of(limit));
+            for (T row : chunk) {
+                formatter.format(row, out);
+            }
+            written += chunk.size();
+            onChunk.accept(chunk.size());
+            entityManager.clear();
+            if (chunk.size() < limit) {
+                return written;
+            }
+            afterId = idOf.applyAsLong(chunk.get(chunk.size() - 1));
+            out.flush();
+        }
+    }
+
+    private static String safe(String s) {
+        return s == null ? "" : s.replaceAll("[\\r\\n,]", " ");
+    }
+}
@@ -0,0 +1,133 @@
+package com.Community.demo.services.impl;
+
+import com.Community.demo.cache.DoctorCalendar;
+import com.Community.demo.cache.DoctorCalendar.Booking;
+import com.Community.demo.exception.BadRequestException;
+import com.Community.demo.payload.DoctorCalendarResponse;
+import com.Community.demo.payload.SessionInterval;
+import com.Community.demo.payload.UpcomingAppointment;
+import com.Community.demo.repository.AppointmentRepository;
+import com.Community.demo.repository.ConsultationRepository;
+import com.Community.demo.repository.UserRepository;
+import com.Community.demo.services.DoctorCalendarService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Serves calendars from DoctorCalendar. Days it does not hold yet are loaded in one pass per
+ * table (both range queries on the doctor/time indexes) covering the first to the last missing
+ * day, and cached; after that a week view costs one primary-key check and no table scan.
+ */
+@Service
+public class DoctorCalendarServiceImpl implements DoctorCalendarService {
+
+    private final AppointmentRepository appointmentRepository;
+    private final ConsultationRepository consultationRepository;
+    private final UserRepository userRepository;
+    private final DoctorCalendar calendar;
+
+    @Value("${calendar.default-days:7}")
+    private int defaultDays;
+
+    @Value("${calendar.max-days:62}")
+    private int maxDays;
+
+    // bookings starting this long before a day can still reach into it
+    @Value("${calendar.lookback-hours:24}")
+    private int lookbackHours;
+
+    public DoctorCalendarServiceImpl(AppointmentRepository appointmentRepository,
+                                     ConsultationRepository consultationRepository,
+                                     UserRepository userRepository,
+                                     DoctorCalendar calendar) {
+        this.appointmentRepository = appointmentRepository;
+        this.consultationRepository = consultationRepository;
+        this.userRepository = userRepository;
+        this.calendar = calendar;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<DoctorCalendarResponse> getCalendar(Long doctorId, LocalDate from, LocalDate to) {
+        LocalDate start = from != null ? from : LocalDate.now();
+        LocalDate end = to != null ? to : start.plusDays(Math.max(1, defaultDays) - 1L);
+        if (start.isAfter(end)) {
+            throw new BadRequestException("from must not be after to");
+        }
+        if (ChronoUnit.DAYS.between(start, end) >= maxDays) {
+            throw new BadRequestException("range must not exceed " + maxDays + " days");
+        }
+        if (!userRepository.existsById(doctorId)) return Optional.empty();
+
+        Map<LocalDate, long[]> bits = new HashMap<>();
+        LocalDate firstMissing = null;
+        LocalDate lastMissing = null;
+        for (LocalDate d = start; !d.isAfter(end); d = d.plusDays(1)) {
+            long[] cached = calendar.get(doctorId, d);
+            if (cached != null) {
+                bits.put(d, cached);
+            } else {
+                if (firstMissing == null) firstMissing = d;
+                lastMissing = d;
+            }
+        }
+        if (firstMissing != null) {
+            load(doctorId, firstMissing, lastMissing.plusDays(1)).forEach(bits::putIfAbsent);
+        }
+
+        List<DoctorCalendarResponse.Day> days = new ArrayList<>();
+        for (LocalDate d = start; !d.isAfter(end); d = d.plusDays(1)) {
+            days.add(new DoctorCalendarResponse.Day(d, hex(bits.get(d))));
+        }
+        return Optional.of(new DoctorCalendarResponse(doctorId, start, end, DoctorCalendar.SLOT_MINUTES, days));
+    }
+
+    /** Builds (and caches, if no write raced the load) the days in [from, to). */
+    private Map<LocalDate, long[]> load(Long doctorId, LocalDate from, LocalDate to) {
+        long generation = calendar.generation(doctorId);
+        LocalDateTime rangeStart = from.atStartOfDay();
+        LocalDateTime rangeEnd = to.atStartOfDay();
+        LocalDateTime lookback = rangeStart.minusHours(Math.max(0, lookbackHours));
+
+        Map<String, Booking> loaded = new HashMap<>();
+        for (UpcomingAppointment a : appointmentRepository.findUpcoming(lookback, rangeEnd, doctorId, null, Limit.unlimited())) {
+            put(loaded, DoctorCalendar.appointmentKey(a.id()), calendar.appointment(doctorId, a.scheduledAt(), a.status()),
+                    rangeStart, rangeEnd);
+        }
+        for (SessionInterval s : consultationRepository.findDoctorIntervals(doctorId, lookback, rangeEnd)) {
+            put(loaded, DoctorCalendar.sessionKey(s.id()), calendar.session(doctorId, s.sessionStart(), s.sessionEnd()),
+                    rangeStart, rangeEnd);
+        }
+        return calendar.install(doctorId, from, to, loaded, generation);
+    }
+
+    private static void put(Map<String, Booking> loaded, String key, Booking b,
+                            LocalDateTime rangeStart, LocalDateTime rangeEnd) {
+        if (b != null && b.start().isBefore(rangeEnd) && b.end().isAfter(rangeStart)) loaded.put(key, b);
+    }
+
+    // slot 0 is the high bit of the first hex digit
+    private static String hex(long[] bits) {
+        StringBuilder sb = new StringBuilder(DoctorCalendar.SLOTS_PER_DAY / 4);
+        for (int digit = 0; digit < DoctorCalendar.SLOTS_PER_DAY / 4; digit++) {
+            int v = 0;
+            for (int k = 0; k < 4; k++) {
+                int slot = digit * 4 + k;
+                if ((bits[slot >> 6] >>> (slot & 63) & 1L) != 0) v |= 8 >> k;
+            }
+            sb.append(Character.forDigit(v, 16));
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,138 @@
+package com.Community.demo.services.impl;
+
+import com.Community.demo.cache.BusyDoctors;
+import com.Community.demo.cache.RoleDirectory;
+import com.Community.demo.model.User;
+import com.Community.demo.payload.DoctorDTO;
+import com.Community.demo.payload.DoctorDirectory;
+import com.Community.demo.repository.ConsultationRepository;
+import com.Community.demo.services.AdminService;
+import com.Community.demo.services.DoctorDirectoryService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * The public doctor list changes only when a user is written (RoleDirectory generation) or a
+ * doctor turns busy or free (BusyDoctors availability version), so the serialized response is
+ * cached under those two versions and reused until either moves.
+ *
+ * Rebuilds are single-flight: the first caller to see a stale entry builds it, and everyone who
+ * arrives meanwhile waits for that same build instead of starting their own.
+ */
+@Service
+public class DoctorDirectoryServiceImpl implements DoctorDirectoryService {
+
+    private static final Logger log = LoggerFactory.getLogger(DoctorDirectoryServiceImpl.class);
+
+    private static final String DOCTOR_ROLE = "ROLE_DOCTOR";
+    private static final String DEFAULT_SPECIALTY = "Cardiology";
+
+    private record Versions(long roles, long availability) {}
+
+    private record Entry(Versions versions, DoctorDirectory directory) {}
+
+    private final AdminService adminService;
+    private final ConsultationRepository consultationRepository;
+    private final RoleDirectory roleDirectory;
+    private final BusyDoctors busyDoctors;
+    private final ObjectMapper objectMapper;
+
+    private volatile Entry current;
+    private final AtomicReference<CompletableFuture<DoctorDirectory>> rebuilding = new AtomicReference<>();
+
+    public DoctorDirectoryServiceImpl(AdminService adminService,
+                                      ConsultationRepository consultationRepository,
+                                      RoleDirectory roleDirectory,
+                                      BusyDoctors busyDoctors,
+                                      ObjectMapper objectMapper) {
+        this.adminService = adminService;
+        this.consultationRepository = consultationRepository;
+        this.roleDirectory = roleDirectory;
+        this.busyDoctors = busyDoctors;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public DoctorDirectory availableDoctors() {
+        Entry entry = current;
+        if (entry != null && entry.versions().equals(versions())) {
+            return entry.directory();
+        }
+
+        CompletableFuture<DoctorDirectory> mine = new CompletableFuture<>();
+        CompletableFuture<DoctorDirectory> running = rebuilding.compareAndExchange(null, mine);
+        if (running != null) {
+            try {
+                return running.join();
+            } catch (CompletionException ex) {
+                throw ex.getCause() instanceof RuntimeException re ? re : ex;
+            }
+        }
+        try {
+            DoctorDirectory built = rebuild();
+            mine.complete(built);
+            return built;
+        } catch (RuntimeException ex) {
+            mine.completeExceptionally(ex);
+            throw ex;
+        } finally {
+            rebuilding.set(null);
+        }
+    }
+
+    private DoctorDirectory rebuild() {
+        // versions are read before the data, so a write during the build leaves the entry stale
+        boolean cacheable = busyDoctors.isReady();
+        Versions versions = versions();
+
+        List<User> doctors = adminService.findUsersByRole(DOCTOR_ROLE);
+        Set<Long> busy = cacheable
+                ? busyDoctors.busyDoctorIds()
+                : new HashSet<>(consultationRepository.findBusyDoctorIds());
+        List<DoctorDTO> available = doctors.stream()
+                .map(user -> DoctorDTO.fromUser(user, busy.contains(user.getId()),
+                        user.getSpecialty() != null ? user.getSpecialty() : DEFAULT_SPECIALTY))
+                .filter(DoctorDTO::isAvailable)
+                .toList();
+
+        byte[] json;
+        try {
+            json = objectMapper.writeValueAsBytes(available);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize doctor list", e);
+        }
+        DoctorDirectory directory = new DoctorDirectory(json, etag(json));
+        if (cacheable) {
+            current = new Entry(versions, directory);
+        }
+        log.debug("Rebuilt public doctor list: {} available of {}", available.size(), doctors.size());
+        return directory;
+    }
+
+    private Versions versions() {
+        return new Versions(roleDirectory.generation(), busyDoctors.availabilityVersion());
+    }
+
+    private static String etag(byte[] json) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(json);
+            return "\"" + HexFormat.of().formatHex(Arrays.copyOf(digest, 16)) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,298 @@
+package com.Community.demo.services.impl;
+
+import com.Community.demo.cache.UnreadCounts;
+import com.Community.demo.events.NotificationsCreated;
+import com.Community.demo.metrics.EntityCounters;
+import com.Community.demo.metrics.EntityCounters.Counter;
+import com.Community.demo.model.Notification;
+import com.Community.demo.repository.NotificationRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * The two ways NotificationServiceImpl writes notifications besides a plain batch insert.
+ *
+ * Write-behind: {@link #enqueue} puts notifications on a bounded lock-free queue that the
+ * single notificationFlushExecutor thread drains every notifications.flush-interval-ms, or as
+ * soon as notifications.batch-size are waiting, one JDBC batch per notifications.batch-size.
+ * The scheduled tick only requests the flush, so a slow or retrying write never holds up the
+ * shared scheduler. A crash loses what has not been flushed yet; a shutdown flushes the rest.
+ * When the queue is full the producer writes its notification itself rather than dropping it.
+ *
+ * Before-commit: {@link #enlist} collects the notifications of the current transaction and
+ * writes them as one batch just before it commits, so they commit or roll back with it.
+ *
+ * Both paths coalesce: a (user, title, message) already written or queued within
+ * notifications.coalesce-window-ms is skipped. Before-commit writes only count towards the
+ * window once their transaction has committed, so a rolled-back attempt never suppresses its
+ * retry. Expired window entries are pruned every notifications.coalesce-prune-interval-ms.
+ */
+@Component
+public class NotificationBuffer {
+
+    private static final Logger log = LoggerFactory.getLogger(NotificationBuffer.class);
+
+    private record Key(Long userId, String title, String message) {
+        static Key of(Notification n) {
+            return new Key(n.getUserId(), n.getTitle(), n.getMessage());
+        }
+    }
+
+    private final NotificationRepository repo;
+    private final EntityCounters entityCounters;
+    private final ApplicationEventPublisher events;
+    private final UnreadCounts unreadCounts;
+    // the flusher and overflow writes run outside (or after) any caller transaction
+    private final TransactionTemplate tx;
+
+    private final Queue<Notification> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger queued = new AtomicInteger();
+    private final Map<Key, Long> recent = new ConcurrentHashMap<>();
+    private final Object txResourceKey = new Object();
+    private final Executor flushExecutor;
+    private final AtomicBoolean flushQueued = new AtomicBoolean();
+
+    @Value("${notifications.buffer-capacity:50000}")
+    private int capacity;
+
+    @Value("${notifications.batch-size:500}")
+    private int batchSize;
+
+    @Value("${notifications.flush-interval-ms:200}")
+    private long flushIntervalMs;
+
+    @Value("${notifications.coalesce-window-ms:60000}")
+    private long coalesceWindowMs;
+
+    @Value("${notifications.flush-attempts:5}")
+    private int flushAttempts;
+
+    public NotificationBuffer(NotificationRepository repo,
+                              EntityCounters entityCounters,
+                              ApplicationEventPublisher events,
+                              UnreadCounts unreadCounts,
+                              PlatformTransactionManager transactionManager,
+                              @Qualifier("notificationFlushExecutor") Executor flushExecutor) {
+        this.repo = repo;
+        this.entityCounters = entityCounters;
+        this.events = events;
+        this.unreadCounts = unreadCounts;
+        this.tx = new TransactionTemplate(transactionManager);
+        this.tx.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.flushExecutor = flushExecutor;
+    }
+
+    // destroyed before notificationFlushExecutor, which then lets a running flush finish
+    @PreDestroy
+    void stop() {
+        drain();
+    }
+
+    /** Queues notifications for the flusher; returns how many were not coalesced away. */
+    public int enqueue(List<Notification> notifications) {
+        int accepted = 0;
+        List<Notification> overflow = null;
+        for (Notification n : notifications) {
+            if (!claimWindow(n)) continue;
+            accepted++;
+            if (queued.incrementAndGet() > Math.max(1, capacity)) {
+                queued.decrementAndGet();
+                if (overflow == null) overflow = new ArrayList<>();
+                overflow.add(n);
+                continue;
+            }
+            queue.offer(n);
+        }
+        if (overflow != null) {
+            log.warn("Notification buffer full; writing {} notifications on the caller's thread", overflow.size());
+            try {
+                write(overflow);
+            } catch (RuntimeException ex) {
+                release(overflow);
+                throw ex;
+            }
+        }
+        if (queued.get() >= batchSize) requestFlush();
+        return accepted;
+    }
+
+    /**
+     * Adds the notifications to the current transaction's before-commit batch. Must be called
+     * inside a transaction with synchronization active.
+     */
+    @SuppressWarnings("unchecked")
+    public void enlist(List<Notification> notifications) {
+        List<Notification> pending = (List<Notification>) TransactionSynchronizationManager.getResource(txResourceKey);
+        if (pending == null) {
+            pending = new ArrayList<>();
+            TransactionSynchronizationManager.bindResource(txResourceKey, pending);
+            TransactionSynchronizationManager.registerSynchronization(new BeforeCommitWrite(pending));
+        }
+        pending.addAll(notifications);
+    }
+
+    /** Number of notifications waiting for the flusher. */
+    public int pending() {
+        return Math.max(0, queued.get());
+    }
+
+    private final class BeforeCommitWrite implements TransactionSynchronization {
+        private final List<Notification> pending;
+        private List<Notification> written = List.of();
+
+        BeforeCommitWrite(List<Notification> pending) {
+            this.pending = pending;
+        }
+
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            long now = System.nanoTime();
+            Set<Key> seen = new HashSet<>();
+            List<Notification> out = new ArrayList<>(pending.size());
+            for (Notification n : pending) {
+                Key key = Key.of(n);
+                if (seen.add(key) && !inWindow(recent.get(key), now)) out.add(n);
+            }
+            if (!out.isEmpty()) {
+                repo.insertBatch(out);
+                unreadCounts.trackCreated(out);
+            }
+            written = out;
+        }
+
+        @Override
+        public void afterCommit() {
+            long now = System.nanoTime();
+            written.forEach(n -> recent.put(Key.of(n), now));
+            committed(written);
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(txResourceKey);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${notifications.flush-interval-ms:200}")
+    public void tick() {
+        if (queued.get() > 0) requestFlush();
+    }
+
+    @Scheduled(fixedDelayString = "${notifications.coalesce-prune-interval-ms:60000}")
+    public void pruneWindow() {
+        long now = System.nanoTime();
+        recent.values().removeIf(seenAt -> !inWindow(seenAt, now));
+    }
+
+    private void requestFlush() {
+        if (!flushQueued.compareAndSet(false, true)) return;
+        try {
+            flushExecutor.execute(() -> {
+                // cleared first: a request arriving while this runs queues another pass
+                flushQueued.set(false);
+                try {
+                    drain();
+                } catch (RuntimeException ex) {
+                    log.error("Notification flush error: {}", ex.getMessage(), ex);
+                }
+            });
+        } catch (RejectedExecutionException ex) {
+            // shutting down; stop() writes what is left
+            flushQueued.set(false);
+        }
+    }
+
+    private void drain() {
+        int size = Math.max(1, batchSize);
+        List<Notification> batch = new ArrayList<>(size);
+        Notification n;
+        while (true) {
+            while (batch.size() < size && (n = queue.poll()) != null) {
+                batch.add(n);
+            }
+            if (batch.isEmpty()) return;
+            queued.addAndGet(-batch.size());
+            writeWithRetry(batch);
+            batch.clear();
+        }
+    }
+
+    private void writeWithRetry(List<Notification> batch) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                write(batch);
+                return;
+            } catch (RuntimeException ex) {
+                if (attempt >= Math.max(1, flushAttempts)) {
+                    log.error("Dropping {} notifications after {} failed flushes: {}", batch.size(), attempt, ex.getMessage());
+                    release(batch);
+                    return;
+                }
+                log.warn("Notification flush of {} failed (attempt {}), retrying: {}", batch.size(), attempt, ex.getMessage());
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(Math.max(1, flushIntervalMs) << attempt));
+            }
+        }
+    }
+
+    private void write(List<Notification> batch) {
+        tx.executeWithoutResult(status -> {
+            repo.insertBatch(batch);
+            unreadCounts.trackCreated(batch);
+        });
+        committed(List.copyOf(batch));
+    }
+
+    private void committed(List<Notification> written) {
+        if (written.isEmpty()) return;
+        long unread = written.stream().filter(n -> !n.isRead()).count();
+        entityCounters.add(Counter.UNREAD_NOTIFICATIONS, unread);
+        events.publishEvent(new NotificationsCreated(written));
+    }
+
+    /** Records the notification in the window; false if an identical one is already there. */
+    private boolean claimWindow(Notification n) {
+        long now = System.nanoTime();
+        boolean[] fresh = {false};
+        recent.compute(Key.of(n), (k, seenAt) -> {
+            if (inWindow(seenAt, now)) return seenAt;
+            fresh[0] = true;
+            return now;
+        });
+        return fresh[0];
+    }
+
+    /** Takes unsaved notifications out of the window, so a retry of them is not coalesced away. */
+    private void release(List<Notification> unsaved) {
+        unsaved.forEach(n -> recent.remove(Key.of(n)));
+    }
+
+    private boolean inWindow(Long seenAt, long now) {
+        return seenAt != null && now - seenAt < TimeUnit.MILLISECONDS.toNanos(coalesceWindowMs);
+    }
+}
@@ -1,28 +1,86 @@
 package com.Community.demo.services.impl;
 
+import com.Community.demo.cache.UnreadCounts;
+import com.Community.demo.events.NotificationsCreated;
+import com.Community.demo.exception.BadRequestException;
+import com.Community.demo.metrics.EntityCounters;
+import com.Community.demo.metrics.EntityCounters.Counter;
 import com.Community.demo.model.Notification;
+import com.Community.demo.payload.NotificationFeedPage;
 import com.Community.demo.repository.NotificationRepository;
 import com.Community.demo.services.NotificationService;
+import com.Community.demo.util.AfterCommit;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
 
 @Service
 @Transactional
 public class NotificationServiceImpl implements NotificationService {
 
     private final NotificationRepository repo;
+    private final EntityCounters entityCounters;
+    private final NotificationBuffer buffer;
+    private final ApplicationEventPublisher events;
+    private final UnreadCounts unreadCounts;
 
-    public NotificationServiceImpl(NotificationRepository repo) {
+    // later than any stored notification; the cursor of the first page
+    private static final LocalDateTime FEED_START = LocalDateTime.of(9999, 12, 31, 0, 0);
+
+    @Value("${notifications.feed.default-limit:20}")
+    private int defaultFeedLimit;
+
+    @Value("${notifications.feed.max-limit:100}")
+    private int maxFeedLimit;
+
+    public NotificationServiceImpl(NotificationRepository repo,
+                                   EntityCounters entityCounters,
+                                   NotificationBuffer buffer,
+                                   ApplicationEventPublisher events,
+                                   UnreadCounts unreadCounts) {
         this.repo = repo;
+        this.entityCounters = entityCounters;
+        this.buffer = buffer;
+        this.events = events;
+        this.unreadCounts = unreadCounts;
     }
 
     @Override
     public Notification createNotification(Long userId, String title, String message) {
         Notification n = new Notification(userId, title, message);
-        return repo.save(n);
+        createNotifications(List.of(n));
+        return n;
+    }
+
+    @Override
+    public void send(List<Notification> notifications, Delivery delivery) {
+        if (notifications.isEmpty()) return;
+        switch (delivery) {
+            // handed over only after commit, so a rolled-back caller sends nothing
+            case WRITE_BEHIND -> AfterCommit.run(() -> buffer.enqueue(notifications));
+            case BEFORE_COMMIT -> buffer.enlist(notifications);
+        }
+    }
+
+    @Override
+    public void createNotifications(List<Notification> notifications) {
+        if (notifications.isEmpty()) return;
+        repo.insertBatch(notifications);
+        unreadCounts.trackCreated(notifications);
+        // batch inserts skip the entity listeners, so count the unread ones here
+        long unread = notifications.stream().filter(n -> !n.isRead()).count();
+        AfterCommit.run(() -> {
+            entityCounters.add(Counter.UNREAD_NOTIFICATIONS, unread);
+            events.publishEvent(new NotificationsCreated(notifications));
+        });
     }
 
     @Override
@@ -31,13 +89,68 @@ public class NotificationServiceImpl implements NotificationService {
         return repo.findByUserIdOrderByCreatedAtDesc(userId);
     }
 
+    // each page is one range scan of idx_notifications_user_created (or _user_unread) of at most
+    // limit + 1 rows, however old the account or deep the cursor
+    @Override
+    @Transactional(readOnly = true)
+    public NotificationFeedPage getFeed(Long userId, String before, Integer limit, boolean unreadOnly) {
+        int size = limit == null ? defaultFeedLimit : limit;
+        if (size < 1 || size > maxFeedLimit) {
+            throw new BadRequestException("limit must be between 1 and " + maxFeedLimit);
+        }
+        LocalDateTime createdAt = FEED_START;
+        long id = Long.MAX_VALUE;
+        if (before != null && !before.isBlank()) {
+            int comma = before.lastIndexOf(',');
+            try {
+                createdAt = LocalDateTime.parse(before.substring(0, Math.max(0, comma)).trim());
+                id = Long.parseLong(before.substring(comma + 1).trim());
+            } catch (DateTimeParseException | NumberFormatException ex) {
+                throw new BadRequestException("before must be \"<createdAt>,<id>\" as returned in nextBefore");
+            }
+        }
+        List<Notification> rows = unreadOnly
+                ? repo.findUnreadFeedPage(userId, createdAt, id, Limit.of(size + 1))
+                : repo.findFeedPage(userId, createdAt, id, Limit.of(size + 1));
+        return NotificationFeedPage.of(rows, size);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<Notification> getNotificationsAfter(Long userId, long afterId, int limit) {
+        return repo.findByUserIdAndIdGreaterThanOrderByIdDesc(userId, afterId, Limit.of(Math.max(1, limit)));
+    }
+
     @Override
     public void markAsRead(Long notificationId) {
-        Optional<Notification> opt = repo.findById(notificationId);
-        if (opt.isPresent()) {
-            Notification n = opt.get();
-            n.setRead(true);
-            repo.save(n);
+        repo.findUserIdById(notificationId)
+                .ifPresent(userId -> markedRead(userId, repo.markReadByIds(userId, List.of(notificationId))));
+    }
+
+    @Override
+    public int markRead(Long userId, List<Long> notificationIds) {
+        if (notificationIds.isEmpty()) return 0;
+        return markedRead(userId, repo.markReadByIds(userId, notificationIds));
+    }
+
+    @Override
+    public int markAllRead(Long userId, long upToId) {
+        return markedRead(userId, repo.markReadUpTo(userId, upToId));
+    }
+
+    // bulk updates skip the entity listeners, so both counters are adjusted here
+    private int markedRead(Long userId, int updated) {
+        if (updated > 0) {
+            unreadCounts.track(Map.of(userId, (long) -updated));
+            AfterCommit.run(() -> entityCounters.add(Counter.UNREAD_NOTIFICATIONS, -updated));
         }
+        return updated;
+    }
+
+    @Override
+    // SUPPORTS: a cached count needs no transaction and so no connection
+    @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
+    public long countUnread(Long userId) {
+        return unreadCounts.get(userId, () -> repo.countByUserIdAndReadFalse(userId));
     }
 }
@@ -0,0 +1,57 @@
+package com.Community.demo.services.impl;
+
+import com.Community.demo.services.ConsultationService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+
+/**
+ * Ends consultation sessions whose client went away without calling endSession, so their
+ * doctors stop showing as busy. A session is stale once it has been running longer than
+ * consultations.reaper.max-duration-minutes, or was created and never started within
+ * consultations.reaper.max-unstarted-minutes.
+ *
+ * Each sweep closes batches of consultations.reaper.batch-size (one transaction each) until a
+ * batch comes back short. The claims are index range scans over the stale rows only, so a
+ * sweep with nothing to do is two empty lookups.
+ */
+@Component
+public class StaleSessionReaper {
+
+    private static final Logger log = LoggerFactory.getLogger(StaleSessionReaper.class);
+
+    private final ConsultationService consultationService;
+
+    @Value("${consultations.reaper.max-duration-minutes:240}")
+    private long maxDurationMinutes;
+
+    @Value("${consultations.reaper.max-unstarted-minutes:1440}")
+    private long maxUnstartedMinutes;
+
+    @Value("${consultations.reaper.batch-size:200}")
+    private int batchSize;
+
+    public StaleSessionReaper(ConsultationService consultationService) {
+        this.consultationService = consultationService;
+    }
+
+    @Scheduled(fixedDelayString = "${consultations.reaper.interval-ms:300000}",
+            initialDelayString = "${consultations.reaper.initial-delay-ms:60000}")
+    public void sweep() {
+        int size = Math.max(1, batchSize);
+        try {
+            int closed;
+            do {
+                LocalDateTime now = LocalDateTime.now();
+                closed = consultationService.closeStaleSessions(
+                        now.minusMinutes(maxDurationMinutes), now.minusMinutes(maxUnstartedMinutes), size);
+            } while (closed >= size);
+        } catch (Exception ex) {
+            log.warn("Stale session sweep failed, will retry: {}", ex.getMessage());
+        }
+    }
+}
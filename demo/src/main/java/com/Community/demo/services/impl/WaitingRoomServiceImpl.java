@@ -0,0 +1,249 @@
+package com.Community.demo.services.impl;
+
+import com.Community.demo.events.DoctorAvailabilityChanged;
+import com.Community.demo.events.OutboxEventType;
+import com.Community.demo.events.OutboxPublisher;
+import com.Community.demo.exception.BadRequestException;
+import com.Community.demo.exception.ConflictException;
+import com.Community.demo.model.ConsultationSession;
+import com.Community.demo.model.User;
+import com.Community.demo.payload.WaitingRoomDuty;
+import com.Community.demo.payload.WaitingRoomStats;
+import com.Community.demo.payload.WaitingTicketResponse;
+import com.Community.demo.repository.UserRepository;
+import com.Community.demo.services.ConsultationService;
+import com.Community.demo.services.WaitingRoomService;
+import com.Community.demo.waitingroom.WaitingRoom;
+import com.Community.demo.waitingroom.WaitingRoom.Match;
+import com.Community.demo.waitingroom.WaitingTicket;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Matches happen on whichever thread brings the missing half: the patient's join request, the
+ * doctor's check-in, or - when a doctor's session ends - a matchExecutor task started from the
+ * BusyDoctors free event. Each match gets an ONLINE ConsultationSession (with its Jitsi room)
+ * and a CONSULTATION_MATCHED outbox event in one transaction.
+ *
+ * A matched session nobody starts within waiting-room.no-show-minutes is ended, so a no-show
+ * frees the doctor long before StaleSessionReaper's general unstarted limit would. Only
+ * matches made by this instance are watched (the room is per-JVM); after a restart the
+ * reaper's limit still applies.
+ */
+@Service
+public class WaitingRoomServiceImpl implements WaitingRoomService {
+
+    private static final Logger log = LoggerFactory.getLogger(WaitingRoomServiceImpl.class);
+
+    private static final String DOCTOR_ROLE = "ROLE_DOCTOR";
+
+    private final WaitingRoom waitingRoom;
+    private final UserRepository userRepository;
+    private final ConsultationService consultationService;
+    private final OutboxPublisher outboxPublisher;
+    private final TransactionTemplate tx;
+    private final Executor matchExecutor;
+
+    private final Map<String, AtomicBoolean> matchQueued = new ConcurrentHashMap<>();
+
+    @Value("${waiting-room.no-show-minutes:15}")
+    private long noShowMinutes;
+
+    @Value("${waiting-room.no-show-batch-size:200}")
+    private int noShowBatchSize;
+
+    public WaitingRoomServiceImpl(WaitingRoom waitingRoom,
+                                  UserRepository userRepository,
+                                  ConsultationService consultationService,
+                                  OutboxPublisher outboxPublisher,
+                                  PlatformTransactionManager transactionManager,
+                                  @Qualifier("matchExecutor") Executor matchExecutor) {
+        this.waitingRoom = waitingRoom;
+        this.userRepository = userRepository;
+        this.consultationService = consultationService;
+        this.outboxPublisher = outboxPublisher;
+        this.tx = new TransactionTemplate(transactionManager);
+        this.matchExecutor = matchExecutor;
+    }
+
+    @Override
+    public WaitingTicketResponse join(Long patientId, String specialty) {
+        if (patientId == null) throw new BadRequestException("patientId is required");
+        if (WaitingRoom.key(specialty) == null) throw new BadRequestException("specialty is required");
+        if (!userRepository.existsById(patientId)) {
+            throw new BadRequestException("Patient not found with id: " + patientId);
+        }
+        WaitingTicket ticket = waitingRoom.enqueue(patientId, specialty);
+        if (ticket == null) {
+            throw new BadRequestException("No doctor is on duty for specialty: " + specialty.trim());
+        }
+        runMatches(ticket.getSpecialty());
+        return response(ticket);
+    }
+
+    @Override
+    public Optional<WaitingTicketResponse> getTicket(long ticketId) {
+        return waitingRoom.ticket(ticketId).map(this::response);
+    }
+
+    @Override
+    public Optional<WaitingTicketResponse> leave(long ticketId) {
+        Optional<WaitingTicket> opt = waitingRoom.ticket(ticketId);
+        if (opt.isEmpty()) return Optional.empty();
+        WaitingTicket ticket = opt.get();
+        if (!waitingRoom.cancel(ticket) && ticket.getState() != WaitingTicket.State.CANCELLED) {
+            throw new ConflictException("Ticket " + ticketId + " has already been matched with a doctor");
+        }
+        return Optional.of(response(ticket));
+    }
+
+    @Override
+    public Optional<WaitingRoomDuty> startDuty(Long doctorId) {
+        Optional<User> opt = userRepository.findById(doctorId);
+        if (opt.isEmpty()) return Optional.empty();
+        User doctor = opt.get();
+        if (doctor.getRoles() == null || !doctor.getRoles().contains(DOCTOR_ROLE)) {
+            throw new BadRequestException("User " + doctorId + " is not a doctor");
+        }
+        if (WaitingRoom.key(doctor.getSpecialty()) == null) {
+            throw new BadRequestException("Doctor " + doctorId + " has no specialty; set it on the profile first");
+        }
+        waitingRoom.doctorOnDuty(doctorId, doctor.getSpecialty());
+        Long sessionId = null;
+        for (Match m : runMatches(WaitingRoom.key(doctor.getSpecialty()))) {
+            if (m.doctorId().equals(doctorId)) sessionId = m.ticket().getSessionId();
+        }
+        return Optional.of(new WaitingRoomDuty(doctorId, doctor.getSpecialty(), true, sessionId));
+    }
+
+    @Override
+    public Optional<WaitingRoomDuty> endDuty(Long doctorId) {
+        Optional<User> opt = userRepository.findById(doctorId);
+        if (opt.isEmpty()) return Optional.empty();
+        waitingRoom.doctorOffDuty(doctorId);
+        return Optional.of(new WaitingRoomDuty(doctorId, opt.get().getSpecialty(), false, null));
+    }
+
+    @Override
+    public List<WaitingRoomStats> stats() {
+        return waitingRoom.stats();
+    }
+
+    @Scheduled(fixedDelayString = "${waiting-room.no-show-interval-ms:60000}")
+    public void closeNoShows() {
+        long age = TimeUnit.MINUTES.toNanos(noShowMinutes);
+        int size = Math.max(1, noShowBatchSize);
+        List<Long> sessionIds;
+        do {
+            sessionIds = waitingRoom.takeMatchedBefore(age, size);
+            if (sessionIds.isEmpty()) return;
+            try {
+                int closed = consultationService.closeUnstartedSessions(sessionIds);
+                if (closed > 0) {
+                    log.info("Ended {} waiting room sessions not started within {} minutes", closed, noShowMinutes);
+                }
+            } catch (RuntimeException ex) {
+                // the reaper's unstarted limit still covers these
+                log.warn("Could not end {} unstarted waiting room sessions: {}", sessionIds.size(), ex.getMessage());
+            }
+        } while (sessionIds.size() >= size);
+    }
+
+    /**
+     * Published under the BusyDoctors lock on the thread that committed the session end, where
+     * a new transaction cannot be opened safely; only the in-memory offer happens here.
+     */
+    @EventListener
+    public void onAvailabilityChanged(DoctorAvailabilityChanged change) {
+        if (!change.available()) return;
+        String key = waitingRoom.doctorFree(change.doctorId());
+        if (key != null) queueMatch(key);
+    }
+
+    private void queueMatch(String key) {
+        AtomicBoolean queued = matchQueued.computeIfAbsent(key, k -> new AtomicBoolean());
+        if (!queued.compareAndSet(false, true)) return;
+        try {
+            matchExecutor.execute(() -> {
+                // cleared first: a signal arriving while this runs queues another pass
+                queued.set(false);
+                runMatches(key);
+            });
+        } catch (RejectedExecutionException ex) {
+            queued.set(false);
+            log.warn("Waiting room match for {} not queued: {}", key, ex.getMessage());
+        }
+    }
+
+    private List<Match> runMatches(String key) {
+        List<Match> matches = waitingRoom.match(key);
+        for (Match m : matches) {
+            createSession(m);
+        }
+        return matches;
+    }
+
+    private void createSession(Match match) {
+        WaitingTicket ticket = match.ticket();
+        Map<Long, User> users = new HashMap<>();
+        userRepository.findAllById(List.of(ticket.getPatientId(), match.doctorId()))
+                .forEach(u -> users.put(u.getId(), u));
+        User patient = users.get(ticket.getPatientId());
+        User doctor = users.get(match.doctorId());
+        if (patient == null) {
+            log.info("Waiting room ticket {} dropped: patient {} no longer exists", ticket.getId(), ticket.getPatientId());
+            waitingRoom.discard(match);
+            if (waitingRoom.doctorFree(match.doctorId()) != null) queueMatch(ticket.getSpecialty());
+            return;
+        }
+        if (doctor == null) {
+            waitingRoom.doctorOffDuty(match.doctorId());
+            waitingRoom.unmatch(match);
+            return;
+        }
+        try {
+            ConsultationSession saved = tx.execute(status -> {
+                ConsultationSession session = consultationService.createSession(ConsultationSession.builder()
+                        .topic("Waiting room: " + (doctor.getSpecialty() != null ? doctor.getSpecialty() : ticket.getSpecialty()))
+                        .mode("ONLINE")
+                        .patient(patient)
+                        .doctor(doctor)
+                        .build());
+                Map<String, Object> payload = new HashMap<>();
+                payload.put("sessionId", session.getId());
+                payload.put("patientId", patient.getId());
+                payload.put("doctorId", doctor.getId());
+                payload.put("specialty", doctor.getSpecialty());
+                outboxPublisher.append(OutboxEventType.CONSULTATION_MATCHED, payload);
+                return session;
+            });
+            waitingRoom.matched(match, saved.getId(), saved.getJitsiRoom());
+            log.info("Waiting room matched patient {} with doctor {} in session {}",
+                    patient.getId(), doctor.getId(), saved.getId());
+        } catch (RuntimeException ex) {
+            log.warn("Could not create session for waiting room ticket {}: {}", ticket.getId(), ex.getMessage());
+            waitingRoom.unmatch(match);
+        }
+    }
+
+    private WaitingTicketResponse response(WaitingTicket ticket) {
+        return WaitingTicketResponse.from(ticket, waitingRoom.depth(ticket.getSpecialty()));
+    }
+}
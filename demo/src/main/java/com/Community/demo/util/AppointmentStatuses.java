@@ -0,0 +1,32 @@
+package com.Community.demo.util;
+
+import com.Community.demo.exception.BadRequestException;
+
+import java.util.Map;
+import java.util.Set;
+
+/** Appointment status values and the transitions allowed between them. */
+public final class AppointmentStatuses {
+
+    public static final String SCHEDULED = "SCHEDULED";
+    public static final String IN_PROGRESS = "IN_PROGRESS";
+    public static final String COMPLETED = "COMPLETED";
+    public static final String CANCELLED = "CANCELLED";
+
+    // target status -> statuses it may be reached from
+    private static final Map<String, Set<String>> ALLOWED_FROM = Map.of(
+            IN_PROGRESS, Set.of(SCHEDULED),
+            COMPLETED, Set.of(SCHEDULED, IN_PROGRESS),
+            CANCELLED, Set.of(SCHEDULED, IN_PROGRESS));
+
+    private AppointmentStatuses() {}
+
+    /** Statuses an appointment may be in to move to {@code to}; BadRequestException if {@code to} is not a target. */
+    public static Set<String> allowedFrom(String to) {
+        Set<String> from = to == null ? null : ALLOWED_FROM.get(to);
+        if (from == null) {
+            throw new BadRequestException("status must be one of " + ALLOWED_FROM.keySet());
+        }
+        return from;
+    }
+}
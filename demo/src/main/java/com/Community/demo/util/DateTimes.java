@@ -0,0 +1,34 @@
+package com.Community.demo.util;
+
+import com.Community.demo.exception.BadRequestException;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+
+/** Parsing for the date/time strings clients send in booking requests. */
+public final class DateTimes {
+
+    private static final DateTimeFormatter SHORT_DATE = DateTimeFormatter.ofPattern("dd-MM-yy");
+
+    private DateTimes() {}
+
+    /**
+     * Accepts ISO-8601 ("2025-12-23T10:00:00") or "23-12-25" (dd-MM-yy, start of that day).
+     * Returns null for null/blank input and throws BadRequestException for anything else.
+     */
+    public static LocalDateTime parseScheduledAt(String value) {
+        if (value == null || value.isBlank()) return null;
+        try {
+            return LocalDateTime.parse(value);
+        } catch (DateTimeParseException ex1) {
+            try {
+                return LocalDate.parse(value, SHORT_DATE).atStartOfDay();
+            } catch (DateTimeParseException ex2) {
+                throw new BadRequestException(
+                        "Invalid scheduledAt format. Use '2025-12-23T10:00:00' or '23-12-25'.");
+            }
+        }
+    }
+}
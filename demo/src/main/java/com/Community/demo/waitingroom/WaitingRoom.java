@@ -0,0 +1,313 @@
+package com.Community.demo.waitingroom;
+
+import com.Community.demo.cache.BusyDoctors;
+import com.Community.demo.payload.WaitingRoomStats;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * In-memory waiting room: one line per specialty, holding waiting patients and idle on-duty
+ * doctors in two lock-free queues.
+ *
+ * A match takes a doctor and a patient off the heads of the queues and claims both without a
+ * lock: the doctor by removing its exact slot from the idle map (a withdrawn or superseded slot
+ * fails the remove and is skipped), the patient by a compare-and-set on the ticket. Any number
+ * of threads may match the same line at once; each pair goes to exactly one of them. A doctor
+ * taken off the queue when no patient is left is put back, and the loop re-checks both queues
+ * afterwards, so a patient arriving at that moment is not stranded.
+ *
+ * Creating the session for a pair is up to the caller (WaitingRoomServiceImpl), which reports
+ * back through {@link #matched} or {@link #unmatch}. Finished tickets are kept for
+ * waiting-room.retain-minutes so patients can still poll the outcome.
+ *
+ * Lines are only created when a doctor goes on duty, and patients may only join a line that
+ * has a doctor on duty, so there is at most one line per specialty found on doctor profiles.
+ *
+ * The room is per-JVM: lines, tickets and duty live in this instance's memory only. Several
+ * instances would each run a separate room, and a restart empties it (waiting patients must
+ * join again, doctors check in again), so the API should be served by a single instance.
+ */
+@Component
+public class WaitingRoom {
+
+    public record Match(WaitingTicket ticket, Long doctorId) {}
+
+    // identity equality on purpose: an older slot of the same doctor must not claim a newer one
+    private static final class DoctorSlot {
+        final Long doctorId;
+        final String specialty;
+
+        DoctorSlot(Long doctorId, String specialty) {
+            this.doctorId = doctorId;
+            this.specialty = specialty;
+        }
+    }
+
+    private static final class Line {
+        final ConcurrentLinkedQueue<WaitingTicket> patients = new ConcurrentLinkedQueue<>();
+        final ConcurrentLinkedQueue<DoctorSlot> doctors = new ConcurrentLinkedQueue<>();
+        final AtomicInteger waiting = new AtomicInteger();
+        final AtomicInteger onDuty = new AtomicInteger();
+        final LongAdder matched = new LongAdder();
+        final LongAdder waitNanos = new LongAdder();
+        final AtomicLong maxWaitNanos = new AtomicLong();
+    }
+
+    private final Map<String, Line> lines = new ConcurrentHashMap<>();
+    private final Map<Long, WaitingTicket> tickets = new ConcurrentHashMap<>();
+    private final Map<Long, WaitingTicket> ticketByPatient = new ConcurrentHashMap<>();
+    // doctor id -> specialty key while on duty
+    private final Map<Long, String> onDuty = new ConcurrentHashMap<>();
+    // doctor id -> the one slot of that doctor currently in a doctors queue
+    private final Map<Long, DoctorSlot> idle = new ConcurrentHashMap<>();
+    // matched tickets in match order, until the caller checks that their session started
+    private final ConcurrentLinkedQueue<WaitingTicket> awaitingStart = new ConcurrentLinkedQueue<>();
+    private final AtomicLong ticketIds = new AtomicLong();
+
+    private final BusyDoctors busyDoctors;
+
+    @Value("${waiting-room.retain-minutes:30}")
+    private long retainMinutes;
+
+    public WaitingRoom(BusyDoctors busyDoctors) {
+        this.busyDoctors = busyDoctors;
+    }
+
+    /** Normalized line key, e.g. " cardiology" -> "CARDIOLOGY"; null when blank. */
+    public static String key(String specialty) {
+        if (specialty == null || specialty.isBlank()) return null;
+        return specialty.trim().toUpperCase(Locale.ROOT);
+    }
+
+    /** True if at least one doctor is on duty for the specialty. */
+    public boolean hasDoctorOnDuty(String specialty) {
+        Line line = lines.get(key(specialty));
+        return line != null && line.onDuty.get() > 0;
+    }
+
+    /**
+     * Queues the patient for the specialty. A patient holds at most one open ticket; joining
+     * again returns that ticket, whatever line it is in. Returns null, queueing nothing, when no
+     * doctor is on duty for the specialty.
+     */
+    public WaitingTicket enqueue(Long patientId, String specialty) {
+        String key = key(specialty);
+        if (!hasDoctorOnDuty(key)) {
+            WaitingTicket open = ticketByPatient.get(patientId);
+            return open != null && open.isOpen() ? open : null;
+        }
+        WaitingTicket fresh = new WaitingTicket(ticketIds.incrementAndGet(), patientId, key);
+        WaitingTicket ticket = ticketByPatient.compute(patientId,
+                (id, current) -> current != null && current.isOpen() ? current : fresh);
+        if (ticket != fresh) return ticket;
+        tickets.put(ticket.getId(), ticket);
+        Line line = line(key);
+        line.waiting.incrementAndGet();
+        line.patients.offer(ticket);
+        return ticket;
+    }
+
+    public Optional<WaitingTicket> ticket(long ticketId) {
+        return Optional.ofNullable(tickets.get(ticketId));
+    }
+
+    /** False if the ticket was already matched (or being matched) or cancelled. */
+    public boolean cancel(WaitingTicket ticket) {
+        if (!ticket.cancel()) return false;
+        Line line = line(ticket.getSpecialty());
+        line.waiting.decrementAndGet();
+        line.patients.remove(ticket);
+        return true;
+    }
+
+    /** Puts the doctor on duty for the specialty and offers them now unless they are busy. */
+    public void doctorOnDuty(Long doctorId, String specialty) {
+        String key = key(specialty);
+        Line line = line(key);
+        String[] previous = {null};
+        onDuty.compute(doctorId, (id, current) -> {
+            if (!key.equals(current)) {
+                line.onDuty.incrementAndGet();
+                if (current != null) lines.get(current).onDuty.decrementAndGet();
+            }
+            previous[0] = current;
+            return key;
+        });
+        if (previous[0] != null && !previous[0].equals(key)) {
+            idle.remove(doctorId);
+        }
+        offer(doctorId, key);
+    }
+
+    public boolean doctorOffDuty(Long doctorId) {
+        boolean[] was = {false};
+        onDuty.computeIfPresent(doctorId, (id, key) -> {
+            lines.get(key).onDuty.decrementAndGet();
+            was[0] = true;
+            return null;
+        });
+        idle.remove(doctorId);
+        return was[0];
+    }
+
+    /**
+     * A doctor just became free. Returns the line they were offered to, or null if they are not
+     * on duty. Never blocks: this runs from a BusyDoctors event.
+     */
+    public String doctorFree(Long doctorId) {
+        String key = onDuty.get(doctorId);
+        if (key == null) return null;
+        offer(doctorId, key);
+        return key;
+    }
+
+    public int depth(String specialty) {
+        Line line = lines.get(key(specialty));
+        return line == null ? 0 : Math.max(0, line.waiting.get());
+    }
+
+    /** Pairs waiting patients with idle doctors of the line until one side runs out. */
+    public List<Match> match(String specialty) {
+        String key = key(specialty);
+        Line line = lines.get(key);
+        List<Match> matches = new ArrayList<>();
+        if (line == null) return matches;
+        while (!line.patients.isEmpty() && !line.doctors.isEmpty()) {
+            DoctorSlot slot = line.doctors.poll();
+            if (slot == null) break;
+            if (!idle.remove(slot.doctorId, slot)) continue;
+            if (!key.equals(onDuty.get(slot.doctorId))) continue;
+            // started a session some other way; offered again when it ends
+            if (busyDoctors.isBusy(slot.doctorId)) continue;
+
+            WaitingTicket ticket = claimNext(line);
+            if (ticket == null) {
+                if (idle.putIfAbsent(slot.doctorId, slot) == null) line.doctors.offer(slot);
+                continue;
+            }
+            matches.add(new Match(ticket, slot.doctorId));
+        }
+        return matches;
+    }
+
+    /** Records the session created for a match. */
+    public void matched(Match match, Long sessionId, String jitsiRoom) {
+        long now = System.nanoTime();
+        WaitingTicket ticket = match.ticket();
+        ticket.matched(match.doctorId(), sessionId, jitsiRoom, now);
+        Line line = line(ticket.getSpecialty());
+        long waited = now - ticket.enqueuedNanos();
+        line.matched.increment();
+        line.waitNanos.add(waited);
+        line.maxWaitNanos.accumulateAndGet(waited, Math::max);
+        awaitingStart.offer(ticket);
+    }
+
+    /**
+     * Session ids of up to {@code limit} matches made more than {@code ageNanos} ago, oldest
+     * first. Each match is handed out once; the caller ends the sessions nobody started.
+     */
+    public List<Long> takeMatchedBefore(long ageNanos, int limit) {
+        long cutoff = System.nanoTime() - ageNanos;
+        List<Long> out = new ArrayList<>();
+        WaitingTicket ticket;
+        while (out.size() < limit && (ticket = awaitingStart.peek()) != null
+                && ticket.finishedNanos() - cutoff <= 0) {
+            if (awaitingStart.remove(ticket)) out.add(ticket.getSessionId());
+        }
+        return out;
+    }
+
+    /**
+     * The session for a match could not be created: the patient goes back to the line (at the
+     * tail) and the doctor back to the idle queue if still on duty.
+     */
+    public void unmatch(Match match) {
+        WaitingTicket ticket = match.ticket();
+        Line line = line(ticket.getSpecialty());
+        ticket.release();
+        line.waiting.incrementAndGet();
+        line.patients.offer(ticket);
+        doctorFree(match.doctorId());
+    }
+
+    /** Drops a claimed ticket whose patient no longer exists. */
+    public void discard(Match match) {
+        match.ticket().release();
+        match.ticket().cancel();
+    }
+
+    public List<WaitingRoomStats> stats() {
+        long now = System.nanoTime();
+        Map<String, Integer> idleBySpecialty = new HashMap<>();
+        idle.values().forEach(s -> idleBySpecialty.merge(s.specialty, 1, Integer::sum));
+        List<WaitingRoomStats> out = new ArrayList<>();
+        lines.forEach((key, line) -> {
+            long matched = line.matched.sum();
+            WaitingTicket oldest = null;
+            for (WaitingTicket t : line.patients) {
+                if (t.getState() == WaitingTicket.State.WAITING) {
+                    oldest = t;
+                    break;
+                }
+            }
+            out.add(new WaitingRoomStats(key,
+                    Math.max(0, line.waiting.get()),
+                    idleBySpecialty.getOrDefault(key, 0),
+                    matched,
+                    matched == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(line.waitNanos.sum() / matched),
+                    TimeUnit.NANOSECONDS.toMillis(line.maxWaitNanos.get()),
+                    oldest == null ? 0 : TimeUnit.NANOSECONDS.toMillis(now - oldest.enqueuedNanos())));
+        });
+        out.sort((a, b) -> a.specialty().compareTo(b.specialty()));
+        return out;
+    }
+
+    @Scheduled(fixedDelayString = "${waiting-room.prune-interval-ms:60000}")
+    public void prune() {
+        long cutoff = System.nanoTime() - TimeUnit.MINUTES.toNanos(retainMinutes);
+        tickets.values().removeIf(t -> {
+            if (t.isOpen() || t.finishedNanos() - cutoff > 0) return false;
+            ticketByPatient.remove(t.getPatientId(), t);
+            return true;
+        });
+    }
+
+    private WaitingTicket claimNext(Line line) {
+        WaitingTicket ticket;
+        while ((ticket = line.patients.poll()) != null) {
+            if (ticket.claim()) {
+                line.waiting.decrementAndGet();
+                return ticket;
+            }
+            // cancelled while queued; cancel() already took it off the depth
+        }
+        return null;
+    }
+
+    private void offer(Long doctorId, String key) {
+        if (busyDoctors.isBusy(doctorId)) return;
+        DoctorSlot slot = new DoctorSlot(doctorId, key);
+        if (idle.putIfAbsent(doctorId, slot) == null) {
+            line(key).doctors.offer(slot);
+        }
+    }
+
+    private Line line(String key) {
+        return lines.computeIfAbsent(key, k -> new Line());
+    }
+}
@@ -0,0 +1,88 @@
+package com.Community.demo.waitingroom;
+
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * One patient's place in a specialty line. The state only moves by compare-and-set, so a
+ * ticket is claimed by exactly one matcher and a cancel can never race a match.
+ */
+public final class WaitingTicket {
+
+    public enum State {
+        WAITING,
+        /** claimed by a matcher; the session is being created */
+        MATCHING,
+        MATCHED,
+        CANCELLED
+    }
+
+    private final long id;
+    private final Long patientId;
+    private final String specialty;
+    private final Instant enqueuedAt;
+    private final long enqueuedNanos;
+    private final AtomicReference<State> state = new AtomicReference<>(State.WAITING);
+
+    // written once by the matcher before the MATCHED transition
+    private volatile Long doctorId;
+    private volatile Long sessionId;
+    private volatile String jitsiRoom;
+    private volatile long waitedNanos = -1;
+    private volatile long finishedNanos;
+
+    WaitingTicket(long id, Long patientId, String specialty) {
+        this.id = id;
+        this.patientId = patientId;
+        this.specialty = specialty;
+        this.enqueuedAt = Instant.now();
+        this.enqueuedNanos = System.nanoTime();
+    }
+
+    public long getId() { return id; }
+    public Long getPatientId() { return patientId; }
+    public String getSpecialty() { return specialty; }
+    public Instant getEnqueuedAt() { return enqueuedAt; }
+    public State getState() { return state.get(); }
+    public Long getDoctorId() { return doctorId; }
+    public Long getSessionId() { return sessionId; }
+    public String getJitsiRoom() { return jitsiRoom; }
+
+    /** Time spent waiting: up to the match if there was one, otherwise up to now. */
+    public long waitedNanos(long now) {
+        long waited = waitedNanos;
+        return waited >= 0 ? waited : now - enqueuedNanos;
+    }
+
+    boolean isOpen() {
+        State s = state.get();
+        return s == State.WAITING || s == State.MATCHING;
+    }
+
+    long enqueuedNanos() { return enqueuedNanos; }
+    long finishedNanos() { return finishedNanos; }
+
+    boolean claim() {
+        return state.compareAndSet(State.WAITING, State.MATCHING);
+    }
+
+    boolean cancel() {
+        if (!state.compareAndSet(State.WAITING, State.CANCELLED)) return false;
+        finishedNanos = System.nanoTime();
+        return true;
+    }
+
+    /** Puts a claimed ticket back, e.g. when creating its session failed. */
+    void release() {
+        state.compareAndSet(State.MATCHING, State.WAITING);
+    }
+
+    void matched(Long doctorId, Long sessionId, String jitsiRoom, long now) {
+        this.doctorId = doctorId;
+        this.sessionId = sessionId;
+        this.jitsiRoom = jitsiRoom;
+        this.waitedNanos = now - enqueuedNanos;
+        this.finishedNanos = now;
+        state.set(State.MATCHED);
+    }
+}
@@ -0,0 +1,132 @@
+package com.Community.demo.reminders;
+
+import com.Community.demo.reminders.Reminder.Kind;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ReminderSchedulerTest {
+
+	private static final LocalDateTime NOW = LocalDateTime.of(2026, 3, 1, 8, 0);
+
+	private ReminderScheduler scheduler() {
+		ReminderScheduler scheduler = new ReminderScheduler(new int[]{1440, 60}, 1000);
+		// the default 6h look-ahead
+		scheduler.start(NOW, NOW.plusHours(6));
+		return scheduler;
+	}
+
+	private static void schedule(ReminderScheduler scheduler, long id, LocalDateTime start) {
+		scheduler.schedule(Kind.APPOINTMENT, id, 100L + id, "a" + id, start, NOW, NOW.plusHours(6));
+	}
+
+	@Test
+	void dayAheadReminderFiresWhenOnlyItFallsInTheWindow() {
+		ReminderScheduler scheduler = scheduler();
+		schedule(scheduler, 1, NOW.plusHours(25));
+
+		List<Reminder> due = scheduler.advance(NOW.plusHours(1).plusSeconds(1));
+
+		assertEquals(1, due.size());
+		assertEquals(1440, due.get(0).leadMinutes());
+		assertEquals(1L, due.get(0).entityId());
+	}
+
+	@Test
+	void hourAheadReminderFiresWhenOnlyItFallsInTheWindow() {
+		ReminderScheduler scheduler = scheduler();
+		schedule(scheduler, 2, NOW.plusHours(3));
+
+		assertTrue(scheduler.advance(NOW.plusHours(1)).isEmpty());
+		List<Reminder> due = scheduler.advance(NOW.plusHours(2).plusSeconds(1));
+
+		assertEquals(1, due.size());
+		assertEquals(60, due.get(0).leadMinutes());
+	}
+
+	@Test
+	void bothLeadsFireAcrossWindows() {
+		ReminderScheduler scheduler = scheduler();
+		LocalDateTime start = NOW.plusHours(25);
+		schedule(scheduler, 3, start);
+		List<Reminder> fired = new ArrayList<>(scheduler.advance(NOW.plusHours(6)));
+
+		// the runner loads the next slice, which holds the 1h reminder
+		LocalDateTime from = NOW.plusHours(6);
+		LocalDateTime until = NOW.plusDays(2);
+		scheduler.extendTo(until);
+		scheduler.schedule(Kind.APPOINTMENT, 3L, 103L, "a3", start, from, until);
+		fired.addAll(scheduler.advance(start.minusMinutes(59)));
+
+		assertEquals(List.of(1440, 60), fired.stream().map(Reminder::leadMinutes).toList());
+	}
+
+	@Test
+	void nothingIsQueuedBeyondTheWindow() {
+		ReminderScheduler scheduler = scheduler();
+		schedule(scheduler, 4, NOW.plusHours(31));
+
+		assertTrue(scheduler.advance(NOW.plusHours(6)).isEmpty());
+	}
+
+	@Test
+	void rescheduledEntityOnlyFiresForItsLatestStart() {
+		ReminderScheduler scheduler = scheduler();
+		schedule(scheduler, 5, NOW.plusHours(2));
+		schedule(scheduler, 5, NOW.plusHours(4));
+
+		List<Reminder> due = scheduler.advance(NOW.plusHours(6));
+
+		assertEquals(1, due.size());
+		assertEquals(NOW.plusHours(4), due.get(0).at());
+	}
+
+	@Test
+	void editedLabelFiresOnlyTheNewReminder() {
+		// changed() schedules from the wall clock
+		LocalDateTime now = LocalDateTime.now();
+		ReminderScheduler scheduler = new ReminderScheduler(new int[]{1440, 60}, 1000);
+		scheduler.start(now, now.plusHours(6));
+		LocalDateTime start = now.plusHours(3);
+		scheduler.schedule(Kind.APPOINTMENT, 6L, 106L, "old", start, now, now.plusHours(6));
+		scheduler.changed(Kind.APPOINTMENT, 6L, 106L, "new", start);
+
+		List<Reminder> due = scheduler.advance(now.plusHours(6));
+
+		assertEquals(1, due.size());
+		assertEquals("new", due.get(0).label());
+	}
+
+	@Test
+	void unchangedWriteDoesNotQueueTheReminderAgain() {
+		LocalDateTime now = LocalDateTime.now();
+		ReminderScheduler scheduler = new ReminderScheduler(new int[]{1440, 60}, 1000);
+		scheduler.start(now, now.plusHours(6));
+		LocalDateTime start = now.plusHours(3);
+		scheduler.schedule(Kind.APPOINTMENT, 7L, 107L, "a7", start, now, now.plusHours(6));
+		scheduler.changed(Kind.APPOINTMENT, 7L, 107L, "a7", start);
+		scheduler.changed(Kind.APPOINTMENT, 7L, 107L, "a7", start);
+
+		assertEquals(1, scheduler.advance(now.plusHours(6)).size());
+	}
+
+	@Test
+	void timingWheelFiresAcrossOverflowLevelsInDeadlineOrder() {
+		TimingWheel<String> wheel = new TimingWheel<>(1000, 60, 0);
+		wheel.add(90_000_000L, "day");
+		wheel.add(5_000L, "seconds");
+		wheel.add(3_600_000L, "hour");
+		List<String> fired = new ArrayList<>();
+
+		wheel.advanceTo(4_000L, fired::add);
+		assertTrue(fired.isEmpty());
+		wheel.advanceTo(100_000_000L, fired::add);
+
+		assertEquals(List.of("seconds", "hour", "day"), fired);
+	}
+}